@@ -0,0 +1,56 @@
+package com.conify.service;
+
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold (full HS512 verification on every call) vs cached verification of the same token.
+ * Run with: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JwtUtilBenchmark {
+
+    // Same shape as jwt.secret in application.properties
+    private static final String SECRET = "bXlTdXBlclNlY3JldEtleVRrYXREb2VzYm9yblRhaXNPZk5lZWRzVG9CZUxvbmc=";
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        jwtUtil = new JwtUtil();
+        setField("secretString", SECRET);
+        setField("maxCachedTokens", 10000);
+        jwtUtil.init();
+
+        token = jwtUtil.generateToken(42L, "benchmark_user");
+        jwtUtil.getClaims(token); // warm the cache
+    }
+
+    @Benchmark
+    public Claims coldVerify() {
+        return jwtUtil.parseAndVerify(token);
+    }
+
+    @Benchmark
+    public Claims cachedVerify() {
+        return jwtUtil.getClaims(token);
+    }
+
+    private void setField(String name, Object value) throws Exception {
+        Field field = JwtUtil.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(jwtUtil, value);
+    }
+}
@@ -0,0 +1,65 @@
+package com.conify.config;
+
+import com.conify.service.ChatService;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * One-off repair of unread counters from before read receipts, which only ever grew.
+ * Reads now decrement by what they mark, so an inflated counter would stay inflated.
+ * Safe to re-run: conversations are flagged once every participant's counter is fixed,
+ * and one whose repair lost a race with live traffic is retried on the next startup.
+ */
+@Component
+public class ChatUnreadCountMigration {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ChatService chatService;
+
+    // After the indexes exist: the recount runs on conversation_recipient_status_timestamp
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    @EventListener(ApplicationReadyEvent.class)
+    public void recountLegacyUnreadCounts() {
+        try {
+            Query legacy = new Query(Criteria.where(ChatService.EXACT_COUNTS_FIELD).exists(false));
+            legacy.fields().include("participants");
+            List<Document> conversations = mongoTemplate.find(legacy, Document.class, "conversations");
+            if (conversations.isEmpty()) return;
+
+            int repaired = 0;
+            for (Document conversation : conversations) {
+                String conversationId = conversation.getString("_id");
+                boolean done = true;
+                List<?> participants = conversation.get("participants", List.class);
+                if (participants != null) {
+                    for (Object p : participants) {
+                        if (p instanceof Number n) done &= chatService.recountUnread(conversationId, n.longValue());
+                    }
+                }
+                if (!done) continue;
+
+                mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(conversationId)),
+                        new Update().set(ChatService.EXACT_COUNTS_FIELD, true), "conversations");
+                repaired++;
+            }
+            System.out.println("✅ Recounted unread counters of " + repaired + "/" + conversations.size() + " conversations");
+        } catch (Exception e) {
+            // Unflagged conversations keep their counters; the next startup picks them up
+            System.err.println("⚠️ Unread count migration failed: " + e.getMessage());
+        }
+    }
+}
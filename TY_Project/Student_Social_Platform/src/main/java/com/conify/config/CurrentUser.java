@@ -0,0 +1,17 @@
+package com.conify.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Injects the {@link com.conify.dto.AuthenticatedUser} taken from the 'authToken' cookie.
+ * When required (default) a missing or invalid token ends the request with 401,
+ * otherwise the parameter is simply null.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CurrentUser {
+    boolean required() default true;
+}
@@ -0,0 +1,76 @@
+package com.conify.config;
+
+import com.conify.dto.AuthenticatedUser;
+import com.conify.service.JwtUtil;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Resolves {@link CurrentUser} parameters from the 'authToken' cookie.
+ * The token is verified once per request and the identity comes straight from
+ * the claims (userId + subject), so no SQLite lookup happens on the hot path.
+ */
+@Component
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private static final String AUTH_COOKIE = "authToken";
+    private static final String REQUEST_ATTR = AuthenticatedUser.class.getName();
+    private static final Object INVALID = new Object();
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentUser.class)
+                && AuthenticatedUser.class.isAssignableFrom(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+
+        AuthenticatedUser user = resolve(webRequest.getNativeRequest(HttpServletRequest.class));
+
+        CurrentUser annotation = parameter.getParameterAnnotation(CurrentUser.class);
+        if (user == null && annotation != null && annotation.required()) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid or missing token");
+        }
+        return user;
+    }
+
+    private AuthenticatedUser resolve(HttpServletRequest request) {
+        if (request == null) return null;
+
+        // Already verified earlier in this request
+        Object cached = request.getAttribute(REQUEST_ATTR);
+        if (cached != null) {
+            return cached == INVALID ? null : (AuthenticatedUser) cached;
+        }
+
+        AuthenticatedUser user = jwtUtil.getAuthenticatedUser(readToken(request));
+        request.setAttribute(REQUEST_ATTR, user != null ? user : INVALID);
+        return user;
+    }
+
+    private String readToken(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) return null;
+
+        for (Cookie cookie : cookies) {
+            if (AUTH_COOKIE.equals(cookie.getName())) {
+                return cookie.getValue();
+            }
+        }
+        return null;
+    }
+}
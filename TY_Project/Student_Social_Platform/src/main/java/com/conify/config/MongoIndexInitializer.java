@@ -0,0 +1,68 @@
+package com.conify.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the indexes the hot queries rely on.
+ * Boot 3 no longer auto-creates annotated indexes, so they are ensured here
+ * (ensureIndex is a no-op when the index already exists).
+ */
+@Component
+public class MongoIndexInitializer {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        try {
+            // Outbox dispatcher: due PENDING messages, oldest first
+            mongoTemplate.indexOps("email_outbox").ensureIndex(
+                    new Index().on("status", Sort.Direction.ASC).on("nextAttemptAt", Sort.Direction.ASC)
+                            .named("status_next_attempt"));
+
+            // Home feed keyset pagination: (createdAt, _id) descending
+            mongoTemplate.indexOps("posts").ensureIndex(
+                    new Index().on("createdAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC)
+                            .named("feed_created_id"));
+
+            // Likes: one document per (post, user); also serves the page-wide likedByMe $in lookup
+            mongoTemplate.indexOps("post_likes").ensureIndex(
+                    new Index().on("postId", Sort.Direction.ASC).on("userId", Sort.Direction.ASC)
+                            .unique().named("post_user_unique"));
+
+            // Comment threads: top-level page per post, then replies by parent
+            mongoTemplate.indexOps("comments").ensureIndex(
+                    new Index().on("postId", Sort.Direction.ASC).on("parentCommentId", Sort.Direction.ASC)
+                            .on("timestamp", Sort.Direction.DESC).on("_id", Sort.Direction.DESC)
+                            .named("post_parent_timestamp_id"));
+            mongoTemplate.indexOps("comments").ensureIndex(
+                    new Index().on("parentCommentId", Sort.Direction.ASC).on("timestamp", Sort.Direction.ASC)
+                            .named("parent_timestamp"));
+
+            // Chat history windows: (conversationId, timestamp, _id) in either direction
+            mongoTemplate.indexOps("chat_messages").ensureIndex(
+                    new Index().on("conversationId", Sort.Direction.ASC).on("timestamp", Sort.Direction.ASC)
+                            .on("_id", Sort.Direction.ASC).named("conversation_timestamp_id"));
+            // First unread / mark-read: the reader's not-yet-READ messages in time order
+            mongoTemplate.indexOps("chat_messages").ensureIndex(
+                    new Index().on("conversationId", Sort.Direction.ASC).on("recipientId", Sort.Direction.ASC)
+                            .on("status", Sort.Direction.ASC).on("timestamp", Sort.Direction.ASC)
+                            .named("conversation_recipient_status_timestamp"));
+
+            System.out.println("✅ MongoDB indexes ensured");
+        } catch (Exception e) {
+            // Never block startup; queries still work, just slower
+            System.err.println("⚠️ Could not ensure MongoDB indexes: " + e.getMessage());
+        }
+    }
+}
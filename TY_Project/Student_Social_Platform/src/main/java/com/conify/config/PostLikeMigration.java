@@ -0,0 +1,74 @@
+package com.conify.config;
+
+import com.conify.model.mongo.PostLike;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One-off move of the old embedded Post.likes arrays into 'post_likes'.
+ * Safe to re-run: only posts that still have a 'likes' field are touched,
+ * and already-copied likes are skipped via the unique {postId, userId} index.
+ */
+@Component
+public class PostLikeMigration {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Right after MongoIndexInitializer (needs the unique index), before the hot feed cache loads
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateEmbeddedLikes() {
+        try {
+            Query legacy = new Query(Criteria.where("likes").exists(true));
+            legacy.fields().include("likes");
+            List<Document> posts = mongoTemplate.find(legacy, Document.class, "posts");
+            if (posts.isEmpty()) return;
+
+            for (Document post : posts) {
+                String postId = post.getObjectId("_id").toHexString();
+
+                Set<Long> likers = new LinkedHashSet<>();
+                List<?> raw = post.get("likes", List.class);
+                if (raw != null) {
+                    for (Object v : raw) {
+                        if (v instanceof Number n) likers.add(n.longValue());
+                    }
+                }
+
+                for (Long userId : likers) {
+                    try {
+                        mongoTemplate.insert(new PostLike(postId, userId));
+                    } catch (DuplicateKeyException alreadyMigrated) {
+                        // copied on an earlier (interrupted) run
+                    }
+                }
+
+                long count = mongoTemplate.count(
+                        new Query(Criteria.where("postId").is(postId)), PostLike.class);
+                mongoTemplate.updateFirst(
+                        new Query(Criteria.where("_id").is(post.getObjectId("_id"))),
+                        new Update().set("likeCount", (int) count).unset("likes"),
+                        "posts");
+            }
+            System.out.println("✅ Migrated embedded likes of " + posts.size() + " posts to post_likes");
+        } catch (Exception e) {
+            // Leaves the remaining 'likes' arrays in place; the next startup picks them up
+            System.err.println("⚠️ Post like migration failed: " + e.getMessage());
+        }
+    }
+}
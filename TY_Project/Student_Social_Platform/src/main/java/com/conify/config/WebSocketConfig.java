@@ -1,7 +1,6 @@
 package com.conify.config;
 
-import com.conify.model.User;
-import com.conify.repository.UserRepository;
+import com.conify.dto.AuthenticatedUser;
 import com.conify.service.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
@@ -17,7 +16,6 @@ import org.springframework.web.socket.WebSocketHandler;
 import java.security.Principal;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -33,9 +31,6 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Autowired
     private JwtUtil jwtUtil;
 
-    @Autowired
-    private UserRepository userRepository;
-
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // Public channels and private queues
@@ -48,7 +43,7 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws")
                 // Pass dependencies to the secure handler
-                .setHandshakeHandler(new SecureHandshakeHandler(jwtUtil, userRepository))
+                .setHandshakeHandler(new SecureHandshakeHandler(jwtUtil))
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
     }
@@ -61,11 +56,9 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     private static class SecureHandshakeHandler extends DefaultHandshakeHandler {
         
         private final JwtUtil jwtUtil;
-        private final UserRepository userRepository;
 
-        public SecureHandshakeHandler(JwtUtil jwtUtil, UserRepository userRepository) {
+        public SecureHandshakeHandler(JwtUtil jwtUtil) {
             this.jwtUtil = jwtUtil;
-            this.userRepository = userRepository;
         }
 
         @Override
@@ -89,16 +82,12 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                     }
                 }
 
-                // 2. Validate Token & Set Principal
-                if (token != null && jwtUtil.validateToken(token)) {
-                    String username = jwtUtil.getUsernameFromToken(token);
-                    Optional<User> userOpt = userRepository.findByUsername(username);
-                    
-                    if (userOpt.isPresent()) {
-                        // Return the REAL authenticated User ID
-                        final String principalName = String.valueOf(userOpt.get().getId());
-                        return () -> principalName;
-                    }
+                // 2. Validate Token & Set Principal (userId comes from the claims)
+                AuthenticatedUser user = jwtUtil.getAuthenticatedUser(token);
+                if (user != null) {
+                    // Return the REAL authenticated User ID
+                    final String principalName = String.valueOf(user.getUserId());
+                    return () -> principalName;
                 }
             } catch (Exception ex) {
                 // Validation failed, proceed to fallback
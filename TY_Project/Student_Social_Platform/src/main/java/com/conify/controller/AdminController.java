@@ -4,6 +4,8 @@ import com.conify.model.mongo.UserProfile;
 import com.conify.repository.mongo.UserProfileRepository;
 import com.conify.repository.UserRepository;
 import com.conify.service.AdminService;
+import com.conify.service.MediaBlobStore;
+import com.conify.service.UserAvailabilityFilter;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -27,6 +29,12 @@ public class AdminController {
     @Autowired
     private AdminService adminService;
 
+    @Autowired
+    private UserAvailabilityFilter availabilityFilter;
+
+    @Autowired
+    private MediaBlobStore mediaBlobStore;
+
     /* -------------------------------------------------
        PENDING VERIFICATIONS
     ------------------------------------------------- */
@@ -113,14 +121,20 @@ public class AdminController {
 
             Long sqlUserId = profile.getUserId();
 
-            // 1️⃣ Delete Mongo profile
+            // 1️⃣ Delete Mongo profile, then drop its references to stored media
             userProfileRepository.delete(profile);
+            mediaBlobStore.release(profile.getAvatarUrl());
+            mediaBlobStore.release(profile.getIdCardUrl());
+            mediaBlobStore.release(profile.getReceiptUrl());
 
             // 2️⃣ Delete SQLite auth user
             if (sqlUserId != null && userRepository.existsById(sqlUserId)) {
                 userRepository.deleteById(sqlUserId);
             }
 
+            // Username/email are free again once the filter is rebuilt
+            availabilityFilter.markDirty();
+
             return ResponseEntity.ok(
                     Map.of("message", "User deleted successfully")
             );
@@ -2,6 +2,7 @@ package com.conify.controller;
 
 import com.conify.dto.LoginDTO;
 import com.conify.service.AdminLoginService;
+import com.conify.service.PasswordHashingService;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -36,6 +37,11 @@ public class AdminLoginController {
             res.put("message", "Admin login successful.");
             return ResponseEntity.ok(res);
 
+        } catch (PasswordHashingService.HashingBusyException e) {
+            res.put("status", "error");
+            res.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(res);
+
         } catch (Exception e) {
             res.put("status", "error");
             res.put("message", e.getMessage());
@@ -0,0 +1,45 @@
+package com.conify.controller;
+
+import com.conify.service.AvatarService;
+import com.conify.service.AvatarService.Avatar;
+import com.conify.service.AvatarService.Format;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Initials avatars: GET /avatars/v1/{name}.svg or .png?size=64|128|256.
+ * Same URL, same bytes, so responses are immutable for a year; the ETag lets
+ * Spring answer If-None-Match with 304.
+ */
+@RestController
+public class AvatarController {
+
+    @Autowired
+    private AvatarService avatarService;
+
+    @GetMapping("/avatars/" + AvatarService.VERSION + "/{name:.+}.{ext:svg|png}")
+    public ResponseEntity<byte[]> avatar(
+            @PathVariable String name,
+            @PathVariable String ext,
+            @RequestParam(value = "size", defaultValue = "128") int size) {
+
+        Avatar avatar = avatarService.render(name, Format.valueOf(ext.toUpperCase(Locale.ROOT)), size);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable())
+                .eTag(avatar.etag())
+                .contentType(MediaType.parseMediaType(avatar.contentType()))
+                // The SVG is only ever an image; never let it run as a document
+                .header("Content-Security-Policy", "default-src 'none'; style-src 'unsafe-inline'")
+                .header("X-Content-Type-Options", "nosniff")
+                .body(avatar.body());
+    }
+}
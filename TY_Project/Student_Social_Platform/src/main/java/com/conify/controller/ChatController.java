@@ -1,11 +1,15 @@
 package com.conify.controller;
 
+import com.conify.config.CurrentUser;
+import com.conify.dto.AuthenticatedUser;
+import com.conify.dto.ReadReceiptEvent;
 import com.conify.model.mongo.ChatMessage;
 import com.conify.model.mongo.Conversation;
 import com.conify.model.mongo.UserProfile;
 import com.conify.repository.mongo.ChatMessageRepository;
 import com.conify.repository.mongo.ConversationRepository;
 import com.conify.repository.mongo.UserProfileRepository;
+import com.conify.service.ChatService;
 import com.conify.service.PostService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -25,15 +29,48 @@ import java.util.*;
 class ChatRestEndpoints {
     @Autowired private ChatController chatController;
     @Autowired private PostService postService;
+    @Autowired private ChatService chatService;
 
     @GetMapping("/api/conversations")
     public List<Map<String, Object>> getConversations(@RequestParam("userId") Long userId) {
         return chatController.getConversations(userId);
     }
 
+    // Latest page + firstUnreadId for the caller; ?before= / ?after= cursors page from there
     @GetMapping("/api/messages/{recipientId}")
-    public Map<String, Object> getChatHistory(@RequestParam("senderId") Long senderId, @PathVariable Long recipientId) {
-        return chatController.getChatHistory(senderId, recipientId);
+    public ResponseEntity<?> getChatHistory(
+            @CurrentUser AuthenticatedUser user,
+            @PathVariable Long recipientId,
+            @RequestParam(value = "before", required = false) String before,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(chatService.getHistory(user.getUserId(), recipientId, before, after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Read watermark over HTTP (when the socket is down): {conversationId, messageId?}
+    @PostMapping("/api/chat/read")
+    public ResponseEntity<?> markRead(@CurrentUser AuthenticatedUser user, @RequestBody Map<String, String> body) {
+        try {
+            Long readerId = user.getUserId();
+            String[] participants = String.valueOf(body.get("conversationId")).split("_");
+            if (participants.length != 2) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Invalid conversationId"));
+            }
+            Long a = Long.valueOf(participants[0]);
+            Long b = Long.valueOf(participants[1]);
+            if (!readerId.equals(a) && !readerId.equals(b)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Not a participant"));
+            }
+
+            ReadReceiptEvent receipt = chatService.markRead(readerId, readerId.equals(a) ? b : a, body.get("messageId"));
+            return ResponseEntity.ok(Map.of("marked", receipt == null ? 0 : receipt.getCount()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     @PostMapping("/api/posts/upload-photo")
@@ -56,6 +93,8 @@ public class ChatController {
     @Autowired private ChatMessageRepository chatMessageRepository;
     @Autowired private ConversationRepository conversationRepository;
     @Autowired private UserProfileRepository userProfileRepository;
+    @Autowired private ChatService chatService;
+    @Autowired private PostService postService;
 
     // =========================
     // 🔥 WebSocket: Send Message (WITH REPLY SUPPORT)
@@ -79,16 +118,17 @@ public class ChatController {
                 chatMessage.setReplyToSenderId(null);
             }
 
-            ChatMessage savedMsg = chatMessageRepository.save(chatMessage);
-
-            updateConversation(
-                    conversationId,
-                    savedMsg.getSenderId(),
-                    savedMsg.getRecipientId(),
-                    savedMsg.getContent(),
-                    savedMsg.getTimestamp(),
-                    savedMsg.getId()
-            );
+            // Counted before it is saved, so a read can never mark it before it was counted
+            chatService.messageSent(chatMessage);
+            ChatMessage savedMsg;
+            try {
+                savedMsg = chatMessageRepository.save(chatMessage);
+            } catch (RuntimeException e) {
+                chatService.messageDropped(chatMessage);
+                throw e;
+            }
+            // Image rendered before the message existed: switch it over now
+            savedMsg.setMediaUrl(postService.settleMessageMedia(savedMsg.getMediaUrl()));
 
             messagingTemplate.convertAndSendToUser(
                     String.valueOf(savedMsg.getRecipientId()),
@@ -107,6 +147,22 @@ public class ChatController {
         }
     }
 
+    // =========================
+    // WebSocket: Read Watermark
+    // =========================
+    // {messageId, originalSenderId}: the principal has read up to messageId
+    @MessageMapping("/chat.read-ack")
+    public void processReadAck(@Payload Map<String, Object> payload, Principal principal) {
+        if (principal == null) return;
+
+        try {
+            Long readerId = Long.valueOf(principal.getName());
+            Long senderId = Long.valueOf(payload.get("originalSenderId").toString());
+            Object messageId = payload.get("messageId");
+            chatService.markRead(readerId, senderId, messageId == null ? null : messageId.toString());
+        } catch (Exception ignored) {}
+    }
+
     // --- REST: Get Conversations List ---
     public List<Map<String, Object>> getConversations(Long userId) {
         List<Conversation> conversations = conversationRepository.findByParticipantsContaining(userId);
@@ -151,50 +207,4 @@ public class ChatController {
 
         return result;
     }
-
-    private void updateConversation(String conversationId, Long senderId, Long recipientId,
-                                    String content, Instant timestamp, String messageId) {
-
-        Optional<Conversation> convOpt = conversationRepository.findById(conversationId);
-        Conversation conv = convOpt.orElseGet(() -> {
-            Conversation c = new Conversation();
-            c.setId(conversationId);
-            c.setParticipants(Arrays.asList(senderId, recipientId));
-            c.setUnreadCounts(new HashMap<>());
-            c.setLastReadMessageIds(new HashMap<>());
-            return c;
-        });
-
-        conv.setLastMessage(new Conversation.LastMessage(senderId, content, timestamp));
-
-        Map<String, Integer> counts = conv.getUnreadCounts();
-        String recipientKey = String.valueOf(recipientId);
-        counts.put(recipientKey, counts.getOrDefault(recipientKey, 0) + 1);
-
-        conversationRepository.save(conv);
-    }
-
-    // --- REST: Get Chat History ---
-    public Map<String, Object> getChatHistory(Long senderId, Long recipientId) {
-        long minId = Math.min(senderId, recipientId);
-        long maxId = Math.max(senderId, recipientId);
-        String conversationId = minId + "_" + maxId;
-
-        List<ChatMessage> messages =
-                chatMessageRepository.findByConversationIdOrderByTimestampAsc(conversationId);
-
-        String firstUnreadId = messages.stream()
-                .filter(m -> m.getSenderId().equals(recipientId)
-                        && m.getRecipientId().equals(senderId)
-                        && m.getStatus() != ChatMessage.MessageStatus.READ)
-                .map(ChatMessage::getId)
-                .findFirst()
-                .orElse(null);
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("messages", messages);
-        response.put("firstUnreadId", firstUnreadId);
-
-        return response;
-    }
 }
@@ -1,15 +1,17 @@
 package com.conify.controller;
 
-import com.conify.model.User;
+import com.conify.config.CurrentUser;
+import com.conify.dto.AuthenticatedUser;
+import com.conify.dto.LikeToggleResult;
 import com.conify.model.mongo.Community;
 import com.conify.model.mongo.CommunityMessage;
 import com.conify.model.mongo.UserProfile;
-import com.conify.repository.UserRepository;
 import com.conify.repository.mongo.CommunityMessageRepository;
 import com.conify.repository.mongo.CommunityRepository;
 import com.conify.repository.mongo.UserProfileRepository;
 import com.conify.service.CommunityService;
-import com.conify.service.JwtUtil;
+import com.conify.service.LikeAggregator;
+import com.conify.service.PostService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -27,32 +29,17 @@ public class CommunityController {
     @Autowired private CommunityRepository communityRepository;
     @Autowired private CommunityMessageRepository messageRepository;
     @Autowired private UserProfileRepository userProfileRepository;
-    @Autowired private UserRepository userRepository;
-    @Autowired private JwtUtil jwtUtil;
     @Autowired private CommunityService communityService;
     @Autowired private SimpMessagingTemplate messagingTemplate;
-
-    // ================= AUTH =================
-    private Long getCurrentUserId(String token) {
-        if (!jwtUtil.validateToken(token)) {
-            throw new RuntimeException("Invalid token");
-        }
-        String username = jwtUtil.getUsernameFromToken(token);
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return user.getId();
-    }
+    @Autowired private LikeAggregator likeAggregator;
+    @Autowired private PostService postService;
 
     // ================= MY COMMUNITIES =================
     @GetMapping("/my-communities")
     public ResponseEntity<?> getMyCommunities(
-            @CookieValue(name = "authToken", required = false) String token) {
+            @CurrentUser AuthenticatedUser user) {
 
-        if (token == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        }
-
-        Long userId = getCurrentUserId(token);
+        Long userId = user.getUserId();
         return ResponseEntity.ok(communityService.getUserCommunities(userId));
     }
 
@@ -76,14 +63,10 @@ public class CommunityController {
     // ================= CREATE COMMUNITY =================
     @PostMapping("/create")
     public ResponseEntity<?> createCommunity(
-            @CookieValue(name = "authToken", required = false) String token,
+            @CurrentUser AuthenticatedUser user,
             @RequestBody Map<String, String> payload) {
 
-        if (token == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        }
-
-        Long userId = getCurrentUserId(token);
+        Long userId = user.getUserId();
         String name = payload.get("name");
 
         if (name == null || name.trim().isEmpty()) {
@@ -106,14 +89,10 @@ public class CommunityController {
     // ================= JOIN / LEAVE COMMUNITY =================
     @PostMapping("/{id}/join")
     public ResponseEntity<?> toggleJoin(
-            @CookieValue(name = "authToken", required = false) String token,
+            @CurrentUser AuthenticatedUser user,
             @PathVariable String id) {
 
-        if (token == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        }
-
-        Long userId = getCurrentUserId(token);
+        Long userId = user.getUserId();
         Community community = communityRepository.findById(id).orElseThrow();
 
         boolean joined;
@@ -133,13 +112,9 @@ public class CommunityController {
     // ================= GET COMMUNITY MESSAGES =================
     @GetMapping("/{id}/messages")
     public ResponseEntity<?> getCommunityMessages(
-            @CookieValue(name = "authToken", required = false) String token,
+            @CurrentUser AuthenticatedUser user,
             @PathVariable String id) {
 
-        if (token == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        }
-
         communityRepository.findById(id).orElseThrow();
 
         return ResponseEntity.ok(
@@ -150,15 +125,11 @@ public class CommunityController {
     // ================= POST MESSAGE =================
     @PostMapping("/{id}/messages")
     public ResponseEntity<?> postMessage(
-            @CookieValue(name = "authToken", required = false) String token,
+            @CurrentUser AuthenticatedUser user,
             @PathVariable String id,
             @RequestBody Map<String, String> payload) {
 
-        if (token == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        }
-
-        Long userId = getCurrentUserId(token);
+        Long userId = user.getUserId();
         Community community = communityRepository.findById(id).orElseThrow();
 
         if (!community.getOwnerId().equals(userId)) {
@@ -177,6 +148,8 @@ public class CommunityController {
         msg.setTimestamp(Instant.now());
 
         messageRepository.save(msg);
+        // Image rendered before the message existed: switch it over now
+        msg.setMediaUrl(postService.settleMessageMedia(msg.getMediaUrl()));
 
         messagingTemplate.convertAndSend(
                 "/topic/community/" + id,
@@ -186,40 +159,22 @@ public class CommunityController {
         return ResponseEntity.ok(msg);
     }
 
-    // ================= LIKE / UNLIKE =================
+    // ================= LIKE / UNLIKE (WRITE-BEHIND) =================
+    // Buffered in LikeAggregator; the likes array update and the POST_LIKED
+    // broadcast to the community topic follow in the next batched flush.
     @PostMapping("/messages/{messageId}/like")
     public ResponseEntity<?> toggleLike(
-            @CookieValue(name = "authToken", required = false) String token,
+            @CurrentUser AuthenticatedUser user,
             @PathVariable String messageId) {
 
-        if (token == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        }
-
-        Long userId = getCurrentUserId(token);
-        CommunityMessage msg = messageRepository.findById(messageId).orElseThrow();
-
-        boolean liked;
-        if (msg.getLikes().contains(userId)) {
-            msg.getLikes().remove(userId);
-            liked = false;
-        } else {
-            msg.getLikes().add(userId);
-            liked = true;
+        try {
+            LikeToggleResult result = likeAggregator.toggle(
+                    LikeAggregator.Target.COMMUNITY_MESSAGE, messageId, user.getUserId());
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
         }
-
-        messageRepository.save(msg);
-
-        messagingTemplate.convertAndSend(
-                "/topic/community/" + msg.getCommunityId(),
-                Map.of(
-                        "type", "POST_LIKED",
-                        "postId", msg.getId(),
-                        "likeCount", msg.getLikes().size(),
-                        "liked", liked
-                )
-        );
-
-        return ResponseEntity.ok(msg);
     }
 }
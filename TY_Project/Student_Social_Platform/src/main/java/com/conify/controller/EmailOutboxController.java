@@ -0,0 +1,54 @@
+package com.conify.controller;
+
+import com.conify.model.mongo.EmailOutboxMessage;
+import com.conify.repository.mongo.EmailOutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/email-outbox")
+public class EmailOutboxController {
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    /* -------------------------------------------------
+       STATUS OF ONE QUEUED EMAIL (body never returned)
+    ------------------------------------------------- */
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getStatus(@PathVariable String id) {
+        return emailOutboxRepository.findById(id)
+                .<ResponseEntity<?>>map(m -> {
+                    Map<String, Object> map = new HashMap<>();
+                    map.put("id", m.getId());
+                    map.put("status", m.getStatus());
+                    map.put("attempts", m.getAttempts());
+                    map.put("lastError", m.getLastError());
+                    map.put("createdAt", m.getCreatedAt());
+                    map.put("nextAttemptAt", m.getNextAttemptAt());
+                    map.put("sentAt", m.getSentAt());
+                    return ResponseEntity.ok(map);
+                })
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("error", "Email not found")));
+    }
+
+    /* -------------------------------------------------
+       QUEUE SUMMARY
+    ------------------------------------------------- */
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Long>> getStats() {
+        Map<String, Long> stats = new HashMap<>();
+        for (EmailOutboxMessage.Status status : EmailOutboxMessage.Status.values()) {
+            stats.put(status.name(), emailOutboxRepository.countByStatus(status));
+        }
+        return ResponseEntity.ok(stats);
+    }
+}
@@ -4,6 +4,7 @@ import com.conify.dto.ForgotPasswordDTO;
 import com.conify.dto.ResetPasswordDTO;
 import com.conify.dto.OTPVerifyDTO;
 import com.conify.service.ForgotPasswordService;
+import com.conify.service.PasswordHashingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -82,6 +83,8 @@ public class ForgotPasswordController {
 
             return ResponseEntity.ok(Map.of("status", "success", "message", "Password has been reset successfully."));
             
+        } catch (PasswordHashingService.HashingBusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("status", "error", "message", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("status", "error", "message", e.getMessage()));
         }
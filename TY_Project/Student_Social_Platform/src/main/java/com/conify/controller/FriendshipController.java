@@ -1,12 +1,10 @@
 package com.conify.controller;
 
-import com.conify.model.User;
+import com.conify.config.CurrentUser;
+import com.conify.dto.AuthenticatedUser;
 import com.conify.service.FriendshipService;
-import com.conify.service.JwtUtil;
-import com.conify.repository.UserRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -18,30 +16,18 @@ import java.util.Map;
 public class FriendshipController {
 
     @Autowired private FriendshipService friendshipService;
-    @Autowired private JwtUtil jwtUtil;
-    @Autowired private UserRepository userRepository;
-
-    private Long getCurrentUserId(String token) {
-        if (!jwtUtil.validateToken(token)) {
-            throw new RuntimeException("Invalid Token");
-        }
-        String username = jwtUtil.getUsernameFromToken(token);
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return user.getId();
-    }
 
     // ---------------- SEARCH USERS WITH STATUS ----------------
 @GetMapping("/search")
 public ResponseEntity<?> searchUsers(
-        @CookieValue(name = "authToken", required = false) String token,
+        @CurrentUser(required = false) AuthenticatedUser user,
         @RequestParam String query) {
 
-    if (token == null || query.length() < 3) {
+    if (user == null || query.length() < 3) {
         return ResponseEntity.ok(List.of());
     }
 
-    Long currentUserId = getCurrentUserId(token);
+    Long currentUserId = user.getUserId();
     return ResponseEntity.ok(
             friendshipService.searchUsersWithStatus(query, currentUserId)
     );
@@ -51,13 +37,9 @@ public ResponseEntity<?> searchUsers(
     // ---------------- FRIEND LIST ----------------
     @GetMapping("/list-friends")
     public ResponseEntity<?> listFriends(
-            @CookieValue(name = "authToken", required = false) String token) {
-
-        if (token == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        }
+            @CurrentUser AuthenticatedUser user) {
 
-        Long currentUserId = getCurrentUserId(token);
+        Long currentUserId = user.getUserId();
         return ResponseEntity.ok(
                 friendshipService.getFriendsAndRequests(currentUserId)
         );
@@ -66,14 +48,10 @@ public ResponseEntity<?> searchUsers(
     // ---------------- SEND REQUEST ----------------
     @PostMapping("/request")
     public ResponseEntity<?> sendRequest(
-            @CookieValue(name = "authToken", required = false) String token,
+            @CurrentUser AuthenticatedUser user,
             @RequestBody Map<String, Long> body) {
 
-        if (token == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        }
-
-        Long requesterId = getCurrentUserId(token);
+        Long requesterId = user.getUserId();
         Long recipientId = body.get("recipientId");
 
         friendshipService.sendFriendRequest(requesterId, recipientId);
@@ -83,14 +61,10 @@ public ResponseEntity<?> searchUsers(
     // ---------------- RESPOND ----------------
     @PostMapping("/respond")
     public ResponseEntity<?> respond(
-            @CookieValue(name = "authToken", required = false) String token,
+            @CurrentUser AuthenticatedUser user,
             @RequestBody Map<String, Object> body) {
 
-        if (token == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        }
-
-        Long currentUserId = getCurrentUserId(token);
+        Long currentUserId = user.getUserId();
         Long requesterId = ((Number) body.get("requesterId")).longValue();
         String action = (String) body.get("action");
 
@@ -101,14 +75,10 @@ public ResponseEntity<?> searchUsers(
     // ---------------- REMOVE / CANCEL ----------------
     @PostMapping("/remove")
     public ResponseEntity<?> remove(
-            @CookieValue(name = "authToken", required = false) String token,
+            @CurrentUser AuthenticatedUser user,
             @RequestBody Map<String, Long> body) {
 
-        if (token == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        }
-
-        Long currentUserId = getCurrentUserId(token);
+        Long currentUserId = user.getUserId();
         Long targetUserId = body.get("targetUserId");
 
         friendshipService.remove(currentUserId, targetUserId);
@@ -1,16 +1,16 @@
 package com.conify.controller;
 
-import com.conify.model.User;
+import com.conify.config.CurrentUser;
+import com.conify.dto.AuthenticatedUser;
 import com.conify.model.mongo.GroupMessage;
 import com.conify.model.mongo.Notification;
 import com.conify.model.mongo.StudentGroup;
 import com.conify.model.mongo.UserProfile;
-import com.conify.repository.UserRepository;
 import com.conify.repository.mongo.GroupMessageRepository;
 import com.conify.repository.mongo.StudentGroupRepository;
 import com.conify.repository.mongo.UserProfileRepository;
-import com.conify.service.JwtUtil;
 import com.conify.service.NotificationService;
+import com.conify.service.PostService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -28,24 +28,14 @@ public class GroupController {
 
     @Autowired private StudentGroupRepository groupRepository;
     @Autowired private GroupMessageRepository messageRepository;
-    @Autowired private UserRepository userRepository;
     @Autowired private UserProfileRepository userProfileRepository;
-    @Autowired private JwtUtil jwtUtil;
     @Autowired private NotificationService notificationService;
-
-    private Long getCurrentUserId(String token) {
-        if (!jwtUtil.validateToken(token)) throw new RuntimeException("Invalid Token");
-        String username = jwtUtil.getUsernameFromToken(token);
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return user.getId();
-    }
+    @Autowired private PostService postService;
 
     @GetMapping
-    public ResponseEntity<?> getUserGroups(@CookieValue(name = "authToken", required = false) String token) {
-        if (token == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    public ResponseEntity<?> getUserGroups(@CurrentUser AuthenticatedUser user) {
         try {
-            Long userId = getCurrentUserId(token);
+            Long userId = user.getUserId();
             List<StudentGroup> groups = groupRepository.findUserGroups(userId);
             groups.sort((g1, g2) -> g2.getLastUpdated().compareTo(g1.getLastUpdated()));
             return ResponseEntity.ok(groups);
@@ -56,12 +46,11 @@ public class GroupController {
 
     @PostMapping("/create")
     public ResponseEntity<?> createGroup(
-            @CookieValue(name = "authToken", required = false) String token,
+            @CurrentUser AuthenticatedUser user,
             @RequestBody Map<String, String> payload
     ) {
-        if (token == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         try {
-            Long userId = getCurrentUserId(token);
+            Long userId = user.getUserId();
             StudentGroup group = new StudentGroup();
             group.setName(payload.get("name"));
             group.setIcon(payload.getOrDefault("icon", "👥"));
@@ -81,12 +70,11 @@ public class GroupController {
 
     @GetMapping("/{groupId}/messages")
     public ResponseEntity<?> getMessages(
-            @CookieValue(name = "authToken", required = false) String token,
+            @CurrentUser AuthenticatedUser user,
             @PathVariable String groupId
     ) {
-        if (token == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         try {
-            Long userId = getCurrentUserId(token);
+            Long userId = user.getUserId();
             Optional<StudentGroup> groupOpt = groupRepository.findById(groupId);
             if (groupOpt.isEmpty()) return ResponseEntity.notFound().build();
 
@@ -115,14 +103,12 @@ public class GroupController {
     // =========================================================
     @PostMapping("/{groupId}/messages")
     public ResponseEntity<?> sendMessage(
-            @CookieValue(name = "authToken", required = false) String token,
+            @CurrentUser AuthenticatedUser user,
             @PathVariable String groupId,
             @RequestBody Map<String, String> payload
     ) {
-        if (token == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-
         try {
-            Long userId = getCurrentUserId(token);
+            Long userId = user.getUserId();
             UserProfile profile = userProfileRepository.findByUserId(userId).orElseThrow();
 
             Optional<StudentGroup> groupOpt = groupRepository.findById(groupId);
@@ -152,6 +138,8 @@ public class GroupController {
             msg.setReplyToContent(payload.get("replyToContent"));
 
             messageRepository.save(msg);
+            // Image rendered before the message existed: switch it over now
+            msg.setMediaUrl(postService.settleMessageMedia(msg.getMediaUrl()));
 
             group.setLastMessage(
                     msg.getType() == GroupMessage.MessageType.IMAGE
@@ -184,13 +172,12 @@ public class GroupController {
 
     @PostMapping("/{groupId}/members")
     public ResponseEntity<?> addMembers(
-            @CookieValue(name = "authToken", required = false) String token,
+            @CurrentUser AuthenticatedUser user,
             @PathVariable String groupId,
             @RequestBody Map<String, List<Long>> payload
     ) {
-        if (token == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         try {
-            Long currentUserId = getCurrentUserId(token);
+            Long currentUserId = user.getUserId();
             List<Long> newMemberIds = payload.get("memberIds");
 
             Optional<StudentGroup> groupOpt = groupRepository.findById(groupId);
@@ -232,12 +219,11 @@ public class GroupController {
 
     @PostMapping("/{groupId}/leave")
     public ResponseEntity<?> leaveGroup(
-            @CookieValue(name = "authToken", required = false) String token,
+            @CurrentUser AuthenticatedUser user,
             @PathVariable String groupId
     ) {
-        if (token == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         try {
-            Long userId = getCurrentUserId(token);
+            Long userId = user.getUserId();
             Optional<StudentGroup> groupOpt = groupRepository.findById(groupId);
             if (groupOpt.isEmpty()) return ResponseEntity.notFound().build();
 
@@ -256,12 +242,11 @@ public class GroupController {
 
     @PostMapping("/{groupId}/join")
     public ResponseEntity<?> joinGroup(
-            @CookieValue(name = "authToken", required = false) String token,
+            @CurrentUser AuthenticatedUser user,
             @PathVariable String groupId
     ) {
-        if (token == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         try {
-            Long userId = getCurrentUserId(token);
+            Long userId = user.getUserId();
             Optional<StudentGroup> groupOpt = groupRepository.findById(groupId);
             if (groupOpt.isEmpty()) return ResponseEntity.notFound().build();
 
@@ -289,13 +274,12 @@ public class GroupController {
 
     @PostMapping("/{groupId}/approve")
     public ResponseEntity<?> approveJoin(
-            @CookieValue(name = "authToken", required = false) String token,
+            @CurrentUser AuthenticatedUser user,
             @PathVariable String groupId,
             @RequestBody Map<String, Object> payload
     ) {
-        if (token == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         try {
-            Long approverId = getCurrentUserId(token);
+            Long approverId = user.getUserId();
             Long targetUserId = ((Number) payload.get("targetUserId")).longValue();
             boolean accept = (boolean) payload.get("accept");
 
@@ -2,6 +2,7 @@ package com.conify.controller;
 
 import com.conify.dto.LoginDTO;
 import com.conify.service.LoginService;
+import com.conify.service.PasswordHashingService;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -54,7 +55,7 @@ public class LoginController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("status", "unverified", "message", e.getMessage()));
 
-        } catch (CannotAcquireLockException e) {
+        } catch (CannotAcquireLockException | PasswordHashingService.HashingBusyException e) {
             return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
                     .body(Map.of("status", "error", "message", "System busy. Try again."));
 
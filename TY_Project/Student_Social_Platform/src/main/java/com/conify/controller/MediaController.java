@@ -0,0 +1,199 @@
+package com.conify.controller;
+
+import com.conify.service.MediaBlobStore;
+import com.conify.service.MediaStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Serves /uploads/** from the {@link MediaStore} (replaces the plain resource handler).
+ *
+ * - Strong ETag: the file name for content-addressed blobs (it contains the hash),
+ *   size + mtime for older uploads. If-None-Match / If-Modified-Since answer 304.
+ * - Blobs are immutable and cached for a year; other uploads revalidate after a day.
+ *   Private blobs (verification documents) are never stored by any cache.
+ * - Single byte ranges answer 206 (If-Range honoured); multi-range requests get the
+ *   whole file, which RFC 9110 allows.
+ * - The body goes out through Tomcat sendfile (kernel zero-copy) when the store has a
+ *   local file and the connector supports it, and through MediaStore.transferTo otherwise.
+ */
+@RestController
+public class MediaController {
+
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String REVALIDATE_DAILY = "public, max-age=86400";
+    private static final String NEVER_STORE = "private, no-store";
+
+    private static final Pattern SINGLE_RANGE = Pattern.compile("^bytes=(\\d*)-(\\d*)$");
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneOffset.UTC);
+
+    // Tomcat's sendfile contract (NIO/NIO2 connectors, useSendfile=true by default)
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private MediaBlobStore mediaBlobStore;
+
+    @Autowired
+    private MediaStore mediaStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @RequestMapping(value = "/uploads/**", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void serve(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String webPath = UriUtils.decode(
+                request.getRequestURI().substring(request.getContextPath().length() + 1),
+                StandardCharsets.UTF_8);
+
+        String key = mediaBlobStore.keyOf(webPath);
+        MediaStore.Stat stat = key == null ? null : mediaStore.stat(key);
+        if (stat == null) {
+            count(HttpServletResponse.SC_NOT_FOUND);
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String fileName = key.substring(key.lastIndexOf('/') + 1);
+        long length = stat.size();
+        Instant lastModified = stat.lastModified().truncatedTo(ChronoUnit.SECONDS);
+        boolean immutable = mediaBlobStore.isBlobUrl(webPath);
+        String etag = immutable
+                ? "\"" + fileName + "\""
+                : "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified.getEpochSecond()) + "\"";
+
+        // Validators and caching headers go on 200, 206 and 304 alike
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.LAST_MODIFIED, HTTP_DATE.format(lastModified));
+        response.setHeader(HttpHeaders.CACHE_CONTROL, mediaBlobStore.isPrivateBlobUrl(webPath) ? NEVER_STORE
+                : immutable ? IMMUTABLE : REVALIDATE_DAILY);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (notModified(request, etag, lastModified)) {
+            count(HttpServletResponse.SC_NOT_MODIFIED);
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && rangeApplies(request, etag)) {
+            Matcher m = SINGLE_RANGE.matcher(range.trim());
+            if (m.matches()) {
+                long[] bounds = bounds(m.group(1), m.group(2), length);
+                if (bounds == null) {
+                    count(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentType(MediaTypeFactory.getMediaType(fileName)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setContentLengthLong(count);
+        count(response.getStatus());
+
+        if ("HEAD".equals(request.getMethod()) || count == 0) return;
+
+        Path file = mediaStore.localFile(key);
+        if (file != null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // The connector writes the file straight from the page cache after we return
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        OutputStream out = response.getOutputStream();
+        WritableByteChannel target = Channels.newChannel(out);
+        mediaStore.transferTo(key, start, count, target);
+        out.flush();
+    }
+
+    /* =======================
+       HELPERS
+       ======================= */
+
+    private static boolean notModified(HttpServletRequest request, String etag, Instant lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            // If-None-Match wins over If-Modified-Since when both are sent
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) tag = tag.substring(2); // weak comparison for GET/HEAD
+                if (tag.equals("*") || tag.equals(etag)) return true;
+            }
+            return false;
+        }
+        long ifModifiedSince = dateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && lastModified.toEpochMilli() <= ifModifiedSince;
+    }
+
+    // If-Range: only serve the range if the client's copy is still the current one
+    private static boolean rangeApplies(HttpServletRequest request, String etag) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        return ifRange == null || ifRange.trim().equals(etag);
+    }
+
+    // [first, last] inclusive, or null if unsatisfiable; "-n" is the last n bytes
+    private static long[] bounds(String first, String last, long length) {
+        try {
+            if (first.isEmpty()) {
+                if (last.isEmpty()) return null;
+                long suffix = Long.parseLong(last);
+                if (suffix == 0 || length == 0) return null;
+                return new long[]{Math.max(0, length - suffix), length - 1};
+            }
+            long start = Long.parseLong(first);
+            if (start >= length) return null;
+            long end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+            return end < start ? null : new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null; // more digits than a long
+        }
+    }
+
+    private static long dateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private void count(int status) {
+        meterRegistry.counter("media.serve", "status", String.valueOf(status)).increment();
+    }
+}
@@ -1,9 +1,11 @@
 package com.conify.controller;
 
-import com.conify.model.User;
+import com.conify.config.CurrentUser;
+import com.conify.dto.AuthenticatedUser;
+import com.conify.dto.FeedPage;
+import com.conify.dto.LikeToggleResult;
 import com.conify.model.mongo.Post;
-import com.conify.repository.UserRepository;
-import com.conify.service.JwtUtil;
+import com.conify.service.ChunkedUploadService;
 import com.conify.service.PostService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -22,33 +24,19 @@ public class PostController {
     private PostService postService;
 
     @Autowired
-    private JwtUtil jwtUtil;
-
-    @Autowired
-    private UserRepository userRepository;
-
-    private Long getUserId(String token) {
-        if (token == null || !jwtUtil.validateToken(token)) {
-            throw new RuntimeException("Invalid token");
-        }
-        String username = jwtUtil.getUsernameFromToken(token);
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return user.getId();
-    }
+    private ChunkedUploadService chunkedUploadService;
 
     /* =====================================================
        CREATE POST
        ===================================================== */
     @PostMapping("/create")
     public ResponseEntity<?> createPost(
-            @CookieValue(name = "authToken", required = false) String token,
+            @CurrentUser AuthenticatedUser user,
             @RequestParam(value = "content", required = false) String content,
             @RequestParam(value = "file", required = false) MultipartFile file) {
 
         try {
-            Long userId = getUserId(token);
-            Post post = postService.createPost(userId, content, file);
+            Post post = postService.createPost(user.getUserId(), content, file);
             return ResponseEntity.ok(post);
         } catch (Exception e) {
             return ResponseEntity
@@ -62,11 +50,10 @@ public class PostController {
        ===================================================== */
     @PostMapping("/create-media")
     public ResponseEntity<?> uploadMedia(
-            @CookieValue(name = "authToken", required = false) String token,
+            @CurrentUser AuthenticatedUser user,
             @RequestParam("file") MultipartFile file) {
 
         try {
-            getUserId(token); // validates token
             String url = postService.saveAndCompressImage(file);
             return ResponseEntity.ok(Map.of("url", url));
         } catch (Exception e) {
@@ -76,36 +63,58 @@ public class PostController {
         }
     }
 
+    // Same result from a finished resumable upload (see UploadController)
+    @PostMapping("/create-media/chunked")
+    public ResponseEntity<?> finishChunkedMedia(
+            @CurrentUser AuthenticatedUser user,
+            @RequestBody Map<String, String> body) {
+
+        try {
+            String url = chunkedUploadService.finish(body.get("uploadId"), user.getUserId(),
+                    postService::saveAndCompressImage);
+            return ResponseEntity.ok(Map.of("url", url));
+        } catch (Exception e) {
+            return UploadController.error(e);
+        }
+    }
+
     /* =====================================================
        FEED
        ===================================================== */
     @GetMapping("/feed")
     public ResponseEntity<?> getFeed(
-            @CookieValue(name = "authToken", required = false) String token) {
+            @CurrentUser AuthenticatedUser user,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "newerThan", required = false) String newerThan,
+            @RequestParam(value = "limit", required = false) Integer limit) {
 
         try {
-            getUserId(token);
-            List<Post> feed = postService.getFeed();
-            return ResponseEntity.ok(feed);
+            FeedPage page = (newerThan != null && !newerThan.isBlank())
+                    ? postService.getFeedNewerThan(newerThan, limit, user.getUserId())
+                    : postService.getFeed(cursor, limit, user.getUserId());
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity
-                    .status(HttpStatus.UNAUTHORIZED)
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", e.getMessage()));
         }
     }
 
     /* =====================================================
-       LIKE / UNLIKE (RACE SAFE)
+       LIKE / UNLIKE (ATOMIC) -> {postId, likeCount, liked}
        ===================================================== */
     @PostMapping("/{id}/like")
     public ResponseEntity<?> toggleLike(
-            @CookieValue(name = "authToken", required = false) String token,
+            @CurrentUser AuthenticatedUser user,
             @PathVariable String id) {
 
         try {
-            Long userId = getUserId(token);
-            Post post = postService.toggleLike(id, userId);
-            return ResponseEntity.ok(post);
+            LikeToggleResult result = postService.toggleLike(id, user.getUserId());
+            return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity
                     .status(HttpStatus.BAD_REQUEST)
@@ -1,73 +1,58 @@
 package com.conify.controller;
 
+import com.conify.config.CurrentUser;
+import com.conify.dto.AuthenticatedUser;
+import com.conify.dto.MediaRenditions;
 import com.conify.model.User;
 import com.conify.model.mongo.UserProfile;
 import com.conify.repository.mongo.UserProfileRepository;
 import com.conify.repository.UserRepository;
-import com.conify.service.JwtUtil;
+import com.conify.service.ChunkedUploadService;
+import com.conify.service.MediaBlobStore;
+import com.conify.service.MediaProcessingService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-
-import javax.imageio.ImageIO;
-import java.awt.Graphics2D;
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.Instant;
 import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
 import java.util.HashMap;
 
 @RestController
 @RequestMapping("/api")
 public class ProfileController {
 
-    @Autowired private JwtUtil jwtUtil;
     @Autowired private UserProfileRepository userProfileRepository;
     @Autowired private UserRepository userRepository;
-    
-    // CRITICAL FIX: Base directory derivation using File.separator for cross-OS compatibility
-    private static final String BASE_DIR = System.getProperty("user.dir") 
-        + File.separator + "src" + File.separator + "main" + File.separator + "resources" + File.separator + "static" + File.separator + "uploads" + File.separator;
-    
-    // Define full physical paths to the subfolders
-    private static final String PROFILE_PHOTO_DIR = BASE_DIR + "profile_photos" + File.separator;
-    // CRITICAL FIX: Explicit physical paths for documents
-    private static final String DOCUMENT_ID_CARD_DIR = BASE_DIR + "documents" + File.separator + "idCards" + File.separator;
-    private static final String DOCUMENT_RECEIPT_DIR = BASE_DIR + "documents" + File.separator + "receipts" + File.separator;
-
-    private Long getCurrentUserId(String token) throws RuntimeException {
-        if (!jwtUtil.validateToken(token)) throw new RuntimeException("Invalid Token");
-        String username = jwtUtil.getUsernameFromToken(token);
-        User user = userRepository.findByUsername(username).orElseThrow(() -> new RuntimeException("User not found"));
-        return user.getId();
-    }
+    @Autowired private MediaProcessingService mediaProcessingService;
+    @Autowired private MediaBlobStore mediaBlobStore;
+    @Autowired private ChunkedUploadService chunkedUploadService;
 
+    private static final long MAX_DOCUMENT_BYTES = 5 * 1024 * 1024;
+    @Autowired private MongoTemplate mongoTemplate;
 
     @GetMapping("/my-profile")
-    public ResponseEntity<?> getMyProfile(@CookieValue(name = "authToken", required = false) String token) {
-        if (token == null || !jwtUtil.validateToken(token)) {
+    public ResponseEntity<?> getMyProfile(@CurrentUser(required = false) AuthenticatedUser user) {
+        if (user == null) {
              return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid token or missing cookie"));
         }
 
         try {
-            String username = jwtUtil.getUsernameFromToken(token);
-            String searchName = username.startsWith("@") ? username : "@" + username;
-            
-            Optional<UserProfile> profileOpt = userProfileRepository.findByUsername(searchName);
+            Optional<UserProfile> profileOpt = userProfileRepository.findByUsername(user.getProfileUsername());
             
             if (profileOpt.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "User profile not found in MongoDB."));
             }
             
             UserProfile profile = profileOpt.get();
-            Optional<User> userOpt = userRepository.findByUsername(username);
+            Optional<User> userOpt = userRepository.findById(user.getUserId());
             
             Map<String, Object> responseData = new HashMap<>();
             
@@ -99,23 +84,28 @@ public class ProfileController {
 
     @PostMapping("/my-profile/update")
     public ResponseEntity<?> updateProfile(
-            @CookieValue(name = "authToken", required = false) String token,
+            @CurrentUser(required = false) AuthenticatedUser user,
             @RequestBody Map<String, String> updates) {
             
-        if (token == null || !jwtUtil.validateToken(token)) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        if (user == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
 
-        String username = jwtUtil.getUsernameFromToken(token);
-        String searchName = username.startsWith("@") ? username : "@" + username;
-        
         try {
-            UserProfile profile = userProfileRepository.findByUsername(searchName)
+            UserProfile profile = userProfileRepository.findByUsername(user.getProfileUsername())
                                 .orElseThrow(() -> new RuntimeException("Profile not found or synced."));
 
             if (updates.containsKey("bio")) profile.setBio(updates.get("bio"));
             if (updates.containsKey("major")) profile.setMajor(updates.get("major"));
-            if (updates.containsKey("avatarUrl")) profile.setAvatarUrl(updates.get("avatarUrl")); 
-            
+            String previousAvatar = profile.getAvatarUrl();
+            if (updates.containsKey("avatarUrl")) {
+                // Stored photos only come in through upload-photo, which takes their reference
+                if (mediaBlobStore.isBlobUrl(updates.get("avatarUrl"))) {
+                    return ResponseEntity.badRequest().body(Map.of("error", "Use upload-photo to set an uploaded avatar."));
+                }
+                profile.setAvatarUrl(updates.get("avatarUrl"));
+            }
+
             userProfileRepository.save(profile);
+            if (updates.containsKey("avatarUrl")) mediaBlobStore.release(previousAvatar);
             return ResponseEntity.ok(Map.of("message", "Profile updated"));
         } catch (Exception e) {
             e.printStackTrace();
@@ -125,22 +115,34 @@ public class ProfileController {
 
     @PostMapping("/my-profile/upload-photo")
     public ResponseEntity<?> uploadPhoto(
-            @CookieValue(name = "authToken", required = false) String token,
+            @CurrentUser(required = false) AuthenticatedUser user,
             @RequestParam("file") MultipartFile file) {
 
-        if (token == null || !jwtUtil.validateToken(token)) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        if (user == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
 
         try {
-            String webPath = saveImageFile(file, PROFILE_PHOTO_DIR, "uploads/profile_photos/");
-            
-            String username = jwtUtil.getUsernameFromToken(token);
-            String searchName = username.startsWith("@") ? username : "@" + username;
-            
-            Optional<UserProfile> profileOpt = userProfileRepository.findByUsername(searchName);
+            Optional<UserProfile> profileOpt = userProfileRepository.findByUsername(user.getProfileUsername());
             if (profileOpt.isPresent()) {
+                MediaRenditions media = mediaProcessingService.store(file);
+                String webPath = media.getOriginalUrl();
+
                 UserProfile p = profileOpt.get();
+                String previousAvatar = p.getAvatarUrl();
                 p.setAvatarUrl(webPath);
-                userProfileRepository.save(p);
+                try {
+                    userProfileRepository.save(p);
+                } catch (RuntimeException e) {
+                    mediaBlobStore.release(webPath); // never got referenced
+                    throw e;
+                }
+                mediaBlobStore.release(previousAvatar);
+
+                // Avatars are only ever shown small: switch to the thumbnail once it exists
+                mediaProcessingService.process(media, ready -> mongoTemplate.updateMulti(
+                        new Query(Criteria.where("avatarUrl").is(webPath)),
+                        new Update().set("avatarUrl", ready.getThumbnailUrl()),
+                        UserProfile.class));
+
                 return ResponseEntity.ok(Map.of("url", webPath, "message", "Photo uploaded successfully."));
             }
 
@@ -154,39 +156,31 @@ public class ProfileController {
 
     @PostMapping("/my-profile/upload-verification-docs")
     public ResponseEntity<?> uploadVerificationDocs(
-            @CookieValue(name = "authToken", required = false) String token,
+            @CurrentUser(required = false) AuthenticatedUser user,
             @RequestParam("idCard") MultipartFile idCard,
             @RequestParam("receipt") MultipartFile receipt) {
         
-        if (token == null || !jwtUtil.validateToken(token)) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        if (user == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
 
         try {
-            if (idCard.isEmpty() || receipt.isEmpty() || idCard.getSize() > 5 * 1024 * 1024 || receipt.getSize() > 5 * 1024 * 1024) {
+            if (idCard.isEmpty() || receipt.isEmpty() || idCard.getSize() > MAX_DOCUMENT_BYTES || receipt.getSize() > MAX_DOCUMENT_BYTES) {
                  return ResponseEntity.badRequest().body(Map.of("error", "Both documents are required and must be under 5MB."));
             }
 
-            String username = jwtUtil.getUsernameFromToken(token);
-            String searchName = username.startsWith("@") ? username : "@" + username;
-            
-            UserProfile profile = userProfileRepository.findByUsername(searchName)
+            UserProfile profile = userProfileRepository.findByUsername(user.getProfileUsername())
                     .orElseThrow(() -> new RuntimeException("Profile not found."));
 
-            // CRITICAL FIX: Use specific directories for storage
-            String idCardPath = saveImageFile(idCard, DOCUMENT_ID_CARD_DIR, "uploads/documents/idCards/");
-            String receiptPath = saveImageFile(receipt, DOCUMENT_RECEIPT_DIR, "uploads/documents/receipts/");
+            // Originals only: reviewers need the full-resolution documents
+            String idCardPath = mediaProcessingService.storeDocument(idCard);
+            String receiptPath;
+            try {
+                receiptPath = mediaProcessingService.storeDocument(receipt);
+            } catch (Exception e) {
+                mediaBlobStore.release(idCardPath); // never got referenced
+                throw e;
+            }
 
-            profile.setIdCardUrl(idCardPath);
-            profile.setReceiptUrl(receiptPath);
-            profile.setVerificationStatus("PENDING");
-            profile.setVerificationSubmittedAt(Instant.now());
-            
-            userProfileRepository.save(profile);
-            
-            return ResponseEntity.ok(Map.of(
-                "status", "PENDING",
-                "idCardUrl", idCardPath,
-                "receiptUrl", receiptPath
-            ));
+            return ResponseEntity.ok(submitVerificationDocs(profile, idCardPath, receiptPath));
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -194,45 +188,67 @@ public class ProfileController {
         }
     }
 
-    // Helper to save and compress images
-    private String saveImageFile(MultipartFile file, String directory, String webPrefix) throws Exception {
-        // Use directory (which now includes absolute path)
-        File dir = new File(directory); 
-        
-        // Ensure the directory exists (CRITICAL FOR FILE EXCEPTION)
-        if (!dir.exists()) {
-            if (!dir.mkdirs()) {
-                 // Log and throw a specific error if directory creation fails
-                 System.err.println("Failed to create upload directory: " + directory);
-                 throw new IllegalStateException("Could not create necessary upload directory.");
+    // Same as above with both documents sent as resumable uploads (see UploadController)
+    @PostMapping("/my-profile/upload-verification-docs/chunked")
+    public ResponseEntity<?> uploadVerificationDocsChunked(
+            @CurrentUser(required = false) AuthenticatedUser user,
+            @RequestBody Map<String, String> body) {
+
+        if (user == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+
+        try {
+            String idCardId = body.get("idCardUploadId");
+            String receiptId = body.get("receiptUploadId");
+            if (chunkedUploadService.status(idCardId, user.getUserId()).size() > MAX_DOCUMENT_BYTES
+                    || chunkedUploadService.status(receiptId, user.getUserId()).size() > MAX_DOCUMENT_BYTES) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Both documents are required and must be under 5MB."));
             }
-        }
 
-        String originalFilename = file.getOriginalFilename();
-        String extension = ".jpg";
-        if (originalFilename != null && originalFilename.contains(".")) {
-            extension = originalFilename.substring(originalFilename.lastIndexOf("."));
+            UserProfile profile = userProfileRepository.findByUsername(user.getProfileUsername())
+                    .orElseThrow(() -> new RuntimeException("Profile not found."));
+
+            String idCardPath = chunkedUploadService.finish(idCardId, user.getUserId(),
+                    mediaProcessingService::storeDocument);
+            String receiptPath;
+            try {
+                receiptPath = chunkedUploadService.finish(receiptId, user.getUserId(),
+                        mediaProcessingService::storeDocument);
+            } catch (Exception e) {
+                mediaBlobStore.release(idCardPath); // never got referenced
+                throw e;
+            }
+
+            return ResponseEntity.ok(submitVerificationDocs(profile, idCardPath, receiptPath));
+
+        } catch (Exception e) {
+            return UploadController.error(e);
         }
-        
-        String newFilename = UUID.randomUUID().toString() + extension;
-        Path filePath = Paths.get(directory + newFilename);
+    }
 
-        // Standard compression and write logic
-        BufferedImage inputImage = ImageIO.read(file.getInputStream());
-        int targetWidth = 800;
-        
-        if (inputImage.getWidth() > targetWidth) {
-            int targetHeight = (int) (inputImage.getHeight() * ((double) targetWidth / inputImage.getWidth()));
-            BufferedImage outputImage = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
-            Graphics2D g2d = outputImage.createGraphics();
-            g2d.drawImage(inputImage, 0, 0, targetWidth, targetHeight, null);
-            g2d.dispose();
-            ImageIO.write(outputImage, extension.substring(1), filePath.toFile());
-        } else {
-            file.transferTo(filePath.toFile());
+    private Map<String, Object> submitVerificationDocs(UserProfile profile, String idCardPath, String receiptPath) {
+        String previousIdCard = profile.getIdCardUrl();
+        String previousReceipt = profile.getReceiptUrl();
+
+        profile.setIdCardUrl(idCardPath);
+        profile.setReceiptUrl(receiptPath);
+        profile.setVerificationStatus("PENDING");
+        profile.setVerificationSubmittedAt(Instant.now());
+
+        try {
+            userProfileRepository.save(profile);
+        } catch (RuntimeException e) {
+            // Neither new document got referenced
+            mediaBlobStore.release(idCardPath);
+            mediaBlobStore.release(receiptPath);
+            throw e;
         }
-        
-        // Return web path (e.g., uploads/profile_photos/xyz.jpg)
-        return webPrefix + newFilename;
+        mediaBlobStore.release(previousIdCard);
+        mediaBlobStore.release(previousReceipt);
+
+        return Map.of(
+            "status", "PENDING",
+            "idCardUrl", idCardPath,
+            "receiptUrl", receiptPath
+        );
     }
-}
\ No newline at end of file
+}
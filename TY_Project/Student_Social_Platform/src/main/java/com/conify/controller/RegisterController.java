@@ -3,7 +3,7 @@ package com.conify.controller;
 import com.conify.dto.RegisterDTO;
 import com.conify.dto.CheckUserDTO; 
 import com.conify.service.RegisterService;
-import com.conify.repository.mongo.UserProfileRepository; // New Import
+import com.conify.service.PasswordHashingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -20,29 +20,13 @@ public class RegisterController {
 
     @Autowired
     private RegisterService registerService;
-    
-    // Inject Mongo Repository directly here for extra safety check in controller if desired,
-    // although optimal design puts this logic in the Service layer (which I see you have updated in RegisterService).
-    // However, since you asked to update this specific file to fetch both:
-    @Autowired
-    private UserProfileRepository userProfileRepository; 
 
     // --- NEW METHOD for Pre-Validation ---
     @PostMapping("/check-user")
     public ResponseEntity<Map<String, String>> checkUser(@RequestBody CheckUserDTO checkUserDTO) {
         Map<String, String> response = new HashMap<>();
         try {
-            // 1. Check MongoDB First (User Profiles)
-            String username = checkUserDTO.getUsername();
-            if (userProfileRepository.findByUsername(username).isPresent() || 
-                userProfileRepository.findByUsername("@" + username).isPresent()) {
-                throw new Exception("Username is taken (Profile exists).");
-            }
-            // Note: findByEmail needs to be added to UserProfileRepository interface if not present
-            // Assuming we want to check it:
-            // if (userProfileRepository.findByEmail(checkUserDTO.getEmail()).isPresent()) { ... }
-
-            // 2. Check SQLite (via Service)
+            // Service checks the Bloom filter first, then SQLite + MongoDB only on a possible hit
             registerService.checkUserExists(checkUserDTO);
             
             response.put("status", "success");
@@ -71,8 +55,8 @@ public class RegisterController {
             response.put("message", successMessage);
             return ResponseEntity.ok(response);
 
-        } catch (CannotAcquireLockException e) {
-            // Handle DB locking issues gracefully
+        } catch (CannotAcquireLockException | PasswordHashingService.HashingBusyException e) {
+            // Handle DB locking issues / saturated hashing pool gracefully
             response.put("status", "error");
             response.put("message", "System is busy. Please try again in a moment.");
             return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
@@ -0,0 +1,95 @@
+package com.conify.controller;
+
+import com.conify.config.CurrentUser;
+import com.conify.dto.AuthenticatedUser;
+import com.conify.service.ChunkedUploadService;
+import com.conify.service.ChunkedUploadService.OffsetMismatchException;
+import com.conify.service.ChunkedUploadService.UploadNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Resumable upload protocol (see ChunkedUploadService):
+ *   POST /api/uploads                     {size, sha256}  -> {uploadId, offset, size, chunkSize}
+ *   PUT  /api/uploads/{id}?offset=N       raw bytes       -> {offset}   (409 + {offset} to resume)
+ *   GET  /api/uploads/{id}                                -> {offset}   (after a dropped connection)
+ * The finished upload is consumed by the endpoint that needs it, e.g.
+ * /api/posts/create-media/chunked or /api/my-profile/upload-verification-docs/chunked.
+ */
+@RestController
+@RequestMapping("/api/uploads")
+public class UploadController {
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    @PostMapping
+    public ResponseEntity<?> initiate(
+            @CurrentUser AuthenticatedUser user,
+            @RequestBody Map<String, Object> body) {
+
+        try {
+            Object size = body.get("size");
+            if (!(size instanceof Number)) {
+                return ResponseEntity.badRequest().body(Map.of("error", "size is required"));
+            }
+            return ResponseEntity.ok(chunkedUploadService.initiate(
+                    user.getUserId(), ((Number) size).longValue(), (String) body.get("sha256")));
+        } catch (Exception e) {
+            return error(e);
+        }
+    }
+
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<?> status(
+            @CurrentUser AuthenticatedUser user,
+            @PathVariable String uploadId) {
+
+        try {
+            return ResponseEntity.ok(chunkedUploadService.status(uploadId, user.getUserId()));
+        } catch (Exception e) {
+            return error(e);
+        }
+    }
+
+    // Raw body (application/octet-stream): no multipart parsing, nothing buffered beyond one chunk
+    @PutMapping("/{uploadId}")
+    public ResponseEntity<?> appendChunk(
+            @CurrentUser AuthenticatedUser user,
+            @PathVariable String uploadId,
+            @RequestParam("offset") long offset,
+            HttpServletRequest request) {
+
+        try {
+            return ResponseEntity.ok(chunkedUploadService.appendChunk(
+                    uploadId, user.getUserId(), offset, request.getContentLengthLong(), request.getInputStream()));
+        } catch (Exception e) {
+            return error(e);
+        }
+    }
+
+    /* =======================
+       ERRORS (shared with the finishing endpoints)
+       ======================= */
+
+    static ResponseEntity<?> error(Exception e) {
+        if (e instanceof UploadNotFoundException) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+        if (e instanceof OffsetMismatchException mismatch) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", e.getMessage(), "offset", mismatch.getOffset()));
+        }
+        if (e instanceof IllegalArgumentException) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        e.printStackTrace();
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Upload failed: " + e.getMessage()));
+    }
+}
@@ -0,0 +1,24 @@
+package com.conify.dto;
+
+/**
+ * Identity of the caller, built purely from the verified JWT claims.
+ * Resolved once per request by {@link com.conify.config.CurrentUserArgumentResolver}.
+ */
+public class AuthenticatedUser {
+
+    private final Long userId;
+    private final String username; // Plain username (no '@' prefix), as stored in SQLite
+
+    public AuthenticatedUser(Long userId, String username) {
+        this.userId = userId;
+        this.username = username;
+    }
+
+    public Long getUserId() { return userId; }
+    public String getUsername() { return username; }
+
+    // Mongo profiles store the username with an '@' prefix
+    public String getProfileUsername() {
+        return username.startsWith("@") ? username : "@" + username;
+    }
+}
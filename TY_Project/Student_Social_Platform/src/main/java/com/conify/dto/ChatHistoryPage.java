@@ -0,0 +1,45 @@
+package com.conify.dto;
+
+import com.conify.model.mongo.ChatMessage;
+
+import java.util.List;
+
+/**
+ * A window of a 1:1 conversation, oldest message first.
+ * Pass 'olderCursor' back as ?before= to scroll up and 'newerCursor' as ?after= to
+ * fetch what arrived since (e.g. after a reconnect). Cursors are "epochMillis_messageId".
+ */
+public class ChatHistoryPage {
+
+    private List<ChatMessage> messages;
+    private String firstUnreadId; // Only on the initial (latest) page; null when everything is read
+    private String olderCursor;
+    private String newerCursor;
+    private boolean hasOlder;
+    private boolean hasNewer;
+
+    public ChatHistoryPage() {}
+
+    public ChatHistoryPage(List<ChatMessage> messages, String firstUnreadId,
+                           String olderCursor, String newerCursor, boolean hasOlder, boolean hasNewer) {
+        this.messages = messages;
+        this.firstUnreadId = firstUnreadId;
+        this.olderCursor = olderCursor;
+        this.newerCursor = newerCursor;
+        this.hasOlder = hasOlder;
+        this.hasNewer = hasNewer;
+    }
+
+    public List<ChatMessage> getMessages() { return messages; }
+    public void setMessages(List<ChatMessage> messages) { this.messages = messages; }
+    public String getFirstUnreadId() { return firstUnreadId; }
+    public void setFirstUnreadId(String firstUnreadId) { this.firstUnreadId = firstUnreadId; }
+    public String getOlderCursor() { return olderCursor; }
+    public void setOlderCursor(String olderCursor) { this.olderCursor = olderCursor; }
+    public String getNewerCursor() { return newerCursor; }
+    public void setNewerCursor(String newerCursor) { this.newerCursor = newerCursor; }
+    public boolean isHasOlder() { return hasOlder; }
+    public void setHasOlder(boolean hasOlder) { this.hasOlder = hasOlder; }
+    public boolean isHasNewer() { return hasNewer; }
+    public void setHasNewer(boolean hasNewer) { this.hasNewer = hasNewer; }
+}
@@ -0,0 +1,28 @@
+package com.conify.dto;
+
+import com.conify.model.mongo.Comment;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import java.util.List;
+
+/**
+ * A comment plus how many direct replies it has and the first few of them.
+ * 'replies' may be shorter than 'replyCount'; the rest come from /api/comments/{id}/replies.
+ */
+public class CommentThread {
+
+    @JsonUnwrapped
+    private final Comment comment;
+    private final int replyCount;
+    private final List<CommentThread> replies;
+
+    public CommentThread(Comment comment, int replyCount, List<CommentThread> replies) {
+        this.comment = comment;
+        this.replyCount = replyCount;
+        this.replies = replies;
+    }
+
+    public Comment getComment() { return comment; }
+    public int getReplyCount() { return replyCount; }
+    public List<CommentThread> getReplies() { return replies; }
+}
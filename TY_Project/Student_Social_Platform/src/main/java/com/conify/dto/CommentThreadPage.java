@@ -0,0 +1,29 @@
+package com.conify.dto;
+
+import java.util.List;
+
+/**
+ * One page of top-level comments (newest first) with their reply previews.
+ * Pass 'nextCursor' back as ?cursor= to get the following page.
+ */
+public class CommentThreadPage {
+
+    private List<CommentThread> comments;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public CommentThreadPage() {}
+
+    public CommentThreadPage(List<CommentThread> comments, String nextCursor, boolean hasMore) {
+        this.comments = comments;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<CommentThread> getComments() { return comments; }
+    public void setComments(List<CommentThread> comments) { this.comments = comments; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
@@ -0,0 +1,33 @@
+package com.conify.dto;
+
+import java.util.List;
+
+/**
+ * One page of the home feed, newest first.
+ * Cursors are opaque "epochMillis_postId" strings taken from the (createdAt, id) sort key.
+ */
+public class FeedPage {
+
+    private List<FeedPost> posts;
+    private String nextCursor;   // Pass back as ?cursor= to load older posts (null at the end)
+    private String newestCursor; // Pass back as ?newerThan= to fetch only what arrived since
+    private boolean hasMore;
+
+    public FeedPage() {}
+
+    public FeedPage(List<FeedPost> posts, String nextCursor, String newestCursor, boolean hasMore) {
+        this.posts = posts;
+        this.nextCursor = nextCursor;
+        this.newestCursor = newestCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<FeedPost> getPosts() { return posts; }
+    public void setPosts(List<FeedPost> posts) { this.posts = posts; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+    public String getNewestCursor() { return newestCursor; }
+    public void setNewestCursor(String newestCursor) { this.newestCursor = newestCursor; }
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
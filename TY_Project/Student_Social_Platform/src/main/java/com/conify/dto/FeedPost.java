@@ -0,0 +1,23 @@
+package com.conify.dto;
+
+import com.conify.model.mongo.Post;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+/**
+ * A feed post as seen by one viewer: the shared Post fields plus 'likedByMe'.
+ * Wrapping (instead of setting a field on Post) keeps cached Post instances viewer-neutral.
+ */
+public class FeedPost {
+
+    @JsonUnwrapped
+    private final Post post;
+    private final boolean likedByMe;
+
+    public FeedPost(Post post, boolean likedByMe) {
+        this.post = post;
+        this.likedByMe = likedByMe;
+    }
+
+    public Post getPost() { return post; }
+    public boolean isLikedByMe() { return likedByMe; }
+}
@@ -0,0 +1,26 @@
+package com.conify.dto;
+
+/**
+ * Response of a like toggle: just the new count and the caller's own state.
+ */
+public class LikeToggleResult {
+
+    private String postId;
+    private int likeCount;
+    private boolean liked;
+
+    public LikeToggleResult() {}
+
+    public LikeToggleResult(String postId, int likeCount, boolean liked) {
+        this.postId = postId;
+        this.likeCount = likeCount;
+        this.liked = liked;
+    }
+
+    public String getPostId() { return postId; }
+    public void setPostId(String postId) { this.postId = postId; }
+    public int getLikeCount() { return likeCount; }
+    public void setLikeCount(int likeCount) { this.likeCount = likeCount; }
+    public boolean isLiked() { return liked; }
+    public void setLiked(boolean liked) { this.liked = liked; }
+}
@@ -0,0 +1,35 @@
+package com.conify.dto;
+
+/**
+ * Web paths of one uploaded image. Right after upload only the original exists and
+ * doubles as the placeholder; feed/thumbnail appear once the worker pool is done
+ * (immediately, for bytes that were uploaded and rendered before).
+ */
+public class MediaRenditions {
+
+    private String originalUrl;
+    private String feedUrl;      // <= app.media.feed-width wide
+    private String thumbnailUrl; // <= app.media.thumbnail-width wide
+    private boolean ready;
+
+    public MediaRenditions() {}
+
+    public MediaRenditions(String originalUrl, String feedUrl, String thumbnailUrl, boolean ready) {
+        this.originalUrl = originalUrl;
+        this.feedUrl = feedUrl;
+        this.thumbnailUrl = thumbnailUrl;
+        this.ready = ready;
+    }
+
+    // What to show right now
+    public String getDisplayUrl() { return ready ? feedUrl : originalUrl; }
+
+    public String getOriginalUrl() { return originalUrl; }
+    public void setOriginalUrl(String originalUrl) { this.originalUrl = originalUrl; }
+    public String getFeedUrl() { return feedUrl; }
+    public void setFeedUrl(String feedUrl) { this.feedUrl = feedUrl; }
+    public String getThumbnailUrl() { return thumbnailUrl; }
+    public void setThumbnailUrl(String thumbnailUrl) { this.thumbnailUrl = thumbnailUrl; }
+    public boolean isReady() { return ready; }
+    public void setReady(boolean ready) { this.ready = ready; }
+}
@@ -0,0 +1,24 @@
+package com.conify.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Compact feed update for one post: only the counters that changed are serialized.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PostDelta {
+
+    private final String postId;
+    private Integer likeCount;
+    private Integer commentCount;
+
+    public PostDelta(String postId) {
+        this.postId = postId;
+    }
+
+    public String getPostId() { return postId; }
+    public Integer getLikeCount() { return likeCount; }
+    public void setLikeCount(Integer likeCount) { this.likeCount = likeCount; }
+    public Integer getCommentCount() { return commentCount; }
+    public void setCommentCount(Integer commentCount) { this.commentCount = commentCount; }
+}
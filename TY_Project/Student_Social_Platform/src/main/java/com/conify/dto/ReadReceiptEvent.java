@@ -0,0 +1,37 @@
+package com.conify.dto;
+
+import java.time.Instant;
+
+/**
+ * Pushed to the sender on /user/queue/read-receipts: readerId has read every
+ * message of the conversation up to and including messageId (sent at readUpTo).
+ */
+public class ReadReceiptEvent {
+
+    private String conversationId;
+    private Long readerId;
+    private String messageId;
+    private Instant readUpTo;
+    private long count; // messages that turned READ with this receipt
+
+    public ReadReceiptEvent() {}
+
+    public ReadReceiptEvent(String conversationId, Long readerId, String messageId, Instant readUpTo, long count) {
+        this.conversationId = conversationId;
+        this.readerId = readerId;
+        this.messageId = messageId;
+        this.readUpTo = readUpTo;
+        this.count = count;
+    }
+
+    public String getConversationId() { return conversationId; }
+    public void setConversationId(String conversationId) { this.conversationId = conversationId; }
+    public Long getReaderId() { return readerId; }
+    public void setReaderId(Long readerId) { this.readerId = readerId; }
+    public String getMessageId() { return messageId; }
+    public void setMessageId(String messageId) { this.messageId = messageId; }
+    public Instant getReadUpTo() { return readUpTo; }
+    public void setReadUpTo(Instant readUpTo) { this.readUpTo = readUpTo; }
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+}
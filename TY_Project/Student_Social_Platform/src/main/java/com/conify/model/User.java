@@ -5,7 +5,11 @@ import java.sql.Timestamp;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        // Used by UserCleanupService's expiry sweeps
+        @Index(name = "idx_users_verified_otp_created", columnList = "is_verified, otp_created_at"),
+        @Index(name = "idx_users_reset_token_expiry", columnList = "reset_token_expiry")
+})
 public class User {
 
     @Id
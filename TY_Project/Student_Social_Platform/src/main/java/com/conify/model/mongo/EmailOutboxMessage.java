@@ -0,0 +1,57 @@
+package com.conify.model.mongo;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
+
+@Document(collection = "email_outbox")
+public class EmailOutboxMessage {
+    @Id
+    private String id;
+
+    private String toEmail;
+    private String subject;
+    private String htmlBody; // Fully rendered template, ready to send
+
+    private Status status = Status.PENDING;
+    private int attempts = 0;
+    private String lastError;
+
+    private Instant createdAt = Instant.now();
+    private Instant nextAttemptAt = Instant.now();
+    private Instant sentAt;
+
+    public enum Status {
+        PENDING, SENT, FAILED
+    }
+
+    public EmailOutboxMessage() {}
+
+    public EmailOutboxMessage(String toEmail, String subject, String htmlBody) {
+        this.toEmail = toEmail;
+        this.subject = subject;
+        this.htmlBody = htmlBody;
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getToEmail() { return toEmail; }
+    public void setToEmail(String toEmail) { this.toEmail = toEmail; }
+    public String getSubject() { return subject; }
+    public void setSubject(String subject) { this.subject = subject; }
+    public String getHtmlBody() { return htmlBody; }
+    public void setHtmlBody(String htmlBody) { this.htmlBody = htmlBody; }
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    public Instant getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(Instant nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+    public Instant getSentAt() { return sentAt; }
+    public void setSentAt(Instant sentAt) { this.sentAt = sentAt; }
+}
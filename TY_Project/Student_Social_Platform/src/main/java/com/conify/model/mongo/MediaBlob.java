@@ -0,0 +1,37 @@
+package com.conify.model.mongo;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
+
+// One document per unique uploaded file, keyed by the SHA-256 of its bytes
+@Document(collection = "media_blobs")
+public class MediaBlob {
+    @Id
+    private String id; // hex SHA-256
+
+    private String url;          // uploads/media/[private/]ab/cd/{hash}.{ext}
+    private long size;
+    private int refCount;        // posts, messages and profiles pointing at it
+    private String feedUrl;      // set once the renditions exist
+    private String thumbnailUrl;
+    private Instant createdAt = Instant.now();
+
+    public MediaBlob() {}
+
+    // Getters/Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+    public long getSize() { return size; }
+    public void setSize(long size) { this.size = size; }
+    public int getRefCount() { return refCount; }
+    public void setRefCount(int refCount) { this.refCount = refCount; }
+    public String getFeedUrl() { return feedUrl; }
+    public void setFeedUrl(String feedUrl) { this.feedUrl = feedUrl; }
+    public String getThumbnailUrl() { return thumbnailUrl; }
+    public void setThumbnailUrl(String thumbnailUrl) { this.thumbnailUrl = thumbnailUrl; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
@@ -3,8 +3,6 @@ package com.conify.model.mongo;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.List;
 
 @Document(collection = "posts")
 public class Post {
@@ -16,13 +14,14 @@ public class Post {
     private AuthorSnapshot authorSnapshot;
 
     private String content;
-    private String mediaUrl;
+    private String mediaUrl;      // feed rendition (the original until it is ready)
+    private String thumbnailUrl;
+    private String originalUrl;
     private MediaType mediaType; 
     
     private Instant createdAt = Instant.now();
     
-    private List<Long> likes = new ArrayList<>();
-    
+    // Likers live in the 'post_likes' collection; only the count is embedded
     // --- UPDATED: Ensure both likeCount and commentCount exist ---
     private int likeCount = 0; 
     private int commentCount = 0;
@@ -55,12 +54,14 @@ public class Post {
     public void setContent(String content) { this.content = content; }
     public String getMediaUrl() { return mediaUrl; }
     public void setMediaUrl(String mediaUrl) { this.mediaUrl = mediaUrl; }
+    public String getThumbnailUrl() { return thumbnailUrl; }
+    public void setThumbnailUrl(String thumbnailUrl) { this.thumbnailUrl = thumbnailUrl; }
+    public String getOriginalUrl() { return originalUrl; }
+    public void setOriginalUrl(String originalUrl) { this.originalUrl = originalUrl; }
     public MediaType getMediaType() { return mediaType; }
     public void setMediaType(MediaType mediaType) { this.mediaType = mediaType; }
     public Instant getCreatedAt() { return createdAt; }
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
-    public List<Long> getLikes() { return likes; }
-    public void setLikes(List<Long> likes) { this.likes = likes; }
     
     // --- UPDATED: Added missing Setter for likeCount ---
     public int getLikeCount() { return likeCount; }
@@ -0,0 +1,33 @@
+package com.conify.model.mongo;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
+
+// One document per (post, user) like; unique index on {postId, userId}
+@Document(collection = "post_likes")
+public class PostLike {
+    @Id
+    private String id;
+
+    private String postId;
+    private Long userId;
+    private Instant createdAt = Instant.now();
+
+    public PostLike() {}
+
+    public PostLike(String postId, Long userId) {
+        this.postId = postId;
+        this.userId = userId;
+    }
+
+    // Getters/Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getPostId() { return postId; }
+    public void setPostId(String postId) { this.postId = postId; }
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
@@ -2,7 +2,12 @@ package com.conify.repository;
 
 import com.conify.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 import java.util.Optional;
 import java.sql.Timestamp;
 
@@ -17,9 +22,39 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmailIgnoreCase(String email);
     Optional<User> findByUsernameIgnoreCase(String username);
 
+    // Projection used to build the availability Bloom filter without loading full rows
+    interface UsernameAndEmail {
+        String getUsername();
+        String getEmail();
+    }
+
+    List<UsernameAndEmail> findAllProjectedBy();
+
     // --- NEW METHOD ADDED ---
     // This allows the reset service to find the user by their OTP/token
     Optional<User> findByResetToken(String resetToken);
 
-    void deleteByIsVerifiedAndOtpCreatedAtBefore(Integer isVerified, Timestamp expiryTime);
+    // Set-based sweeps (one statement each, served by the indexes on User)
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM User u WHERE u.isVerified = :isVerified AND u.otpCreatedAt < :expiryTime")
+    int deleteByIsVerifiedAndOtpCreatedAtBefore(@Param("isVerified") Integer isVerified,
+                                                @Param("expiryTime") Timestamp expiryTime);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.resetToken = NULL, u.resetTokenExpiry = NULL WHERE u.resetTokenExpiry < :now")
+    int clearResetTokensExpiredBefore(@Param("now") Timestamp now);
+
+    // Single-column stamp used by the login pipeline instead of re-saving the whole row
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.lastLoginAt = :loginAt WHERE u.id = :id")
+    int updateLastLoginAt(@Param("id") Long id, @Param("loginAt") Timestamp loginAt);
+
+    // First-login claim: returns 1 for exactly one login, 0 once lastLoginAt is set
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.lastLoginAt = :loginAt WHERE u.id = :id AND u.lastLoginAt IS NULL")
+    int markFirstLogin(@Param("id") Long id, @Param("loginAt") Timestamp loginAt);
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.conify.repository.mongo;
+
+import com.conify.model.mongo.EmailOutboxMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends MongoRepository<EmailOutboxMessage, String> {
+    // Oldest due messages first; the page size is the dispatcher batch size
+    List<EmailOutboxMessage> findByStatusAndNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+            EmailOutboxMessage.Status status, Instant now, Pageable page);
+
+    long countByStatus(EmailOutboxMessage.Status status);
+}
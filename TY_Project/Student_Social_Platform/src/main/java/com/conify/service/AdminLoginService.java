@@ -19,6 +19,9 @@ public class AdminLoginService {
     @Autowired
     private JwtUtil jwtUtil; // Reuse existing JWT util for consistency
 
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
     // Create a default admin on startup if none exists
     @PostConstruct
     public void initDefaultAdmin() {
@@ -38,9 +41,9 @@ public class AdminLoginService {
         }
 
         Admin admin = adminOpt.get();
-        BCrypt.Result result = BCrypt.verifyer().verify(loginDTO.getPassword().toCharArray(), admin.getPasswordHash());
+        boolean verified = passwordHashingService.verify(loginDTO.getPassword(), admin.getPasswordHash());
 
-        if (!result.verified) {
+        if (!verified) {
             throw new Exception("Invalid admin password.");
         }
 
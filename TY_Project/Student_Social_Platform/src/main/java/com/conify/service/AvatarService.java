@@ -0,0 +1,228 @@
+package com.conify.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.UriUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Default avatars: initials on a colored circle, rendered in-process instead of
+ * linking every profile to an external avatar service.
+ *
+ * The output depends only on the name, the format and the size, so the URL
+ * (avatars/v1/{name}.svg) can be cached forever. Changing the drawing means bumping
+ * {@link #VERSION}, which changes every URL. Rendered avatars are kept in a bounded
+ * LRU map; a feed page asks for the same few dozen names over and over.
+ */
+@Service
+public class AvatarService {
+
+    public static final String VERSION = "v1";
+
+    private static final String URL_PREFIX = "avatars/" + VERSION + "/";
+    private static final String LEGACY_PREFIX = "https://ui-avatars.com/api/";
+
+    private static final int MAX_NAME_LENGTH = 64;
+    private static final int[] PNG_SIZES = {64, 128, 256};
+
+    // Background colors; white initials stay readable on all of them
+    private static final String[] PALETTE = {
+            "#E53935", "#D81B60", "#8E24AA", "#5E35B1", "#3949AB", "#1E88E5",
+            "#00897B", "#43A047", "#6D4C41", "#F4511E", "#546E7A", "#00ACC1"
+    };
+
+    @Value("${app.avatars.cache.max-entries:2000}")
+    private int maxEntries;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Map<String, Avatar> cache;
+
+    private Counter hitCounter;
+    private Counter missCounter;
+
+    public enum Format {
+        SVG("image/svg+xml"), PNG("image/png");
+
+        private final String contentType;
+
+        Format(String contentType) { this.contentType = contentType; }
+
+        public String getContentType() { return contentType; }
+    }
+
+    public record Avatar(byte[] body, String contentType, String etag) {}
+
+    @PostConstruct
+    public void init() {
+        // Access-ordered: the least recently requested avatar is evicted first
+        cache = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Avatar> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        hitCounter = meterRegistry.counter("avatars.cache", "result", "hit");
+        missCounter = meterRegistry.counter("avatars.cache", "result", "miss");
+    }
+
+    /* =======================
+       URLS
+       ======================= */
+
+    // Relative like upload paths: "avatars/v1/jane_doe.svg"
+    public String defaultUrl(String username) {
+        return URL_PREFIX + UriUtils.encodePathSegment(normalize(username), StandardCharsets.UTF_8) + ".svg";
+    }
+
+    // Profiles created before local avatars pointed at ui-avatars.com
+    public boolean isLegacyDefault(String avatarUrl) {
+        return avatarUrl != null && avatarUrl.startsWith(LEGACY_PREFIX);
+    }
+
+    /* =======================
+       RENDER
+       ======================= */
+
+    /**
+     * @param size PNG edge length, snapped to 64 / 128 / 256; ignored for SVG
+     */
+    public Avatar render(String name, Format format, int size) {
+        String normalized = normalize(name);
+        int edge = format == Format.PNG ? snap(size) : 0;
+        String key = format + ":" + edge + ":" + normalized;
+
+        synchronized (this) {
+            Avatar cached = cache.get(key);
+            if (cached != null) {
+                hitCounter.increment();
+                return cached;
+            }
+        }
+
+        missCounter.increment();
+        String initials = initials(normalized);
+        String color = PALETTE[Math.floorMod(normalized.hashCode(), PALETTE.length)];
+        byte[] body = format == Format.SVG ? svg(initials, color) : png(initials, color, edge);
+        Avatar avatar = new Avatar(body, format.getContentType(), "\"" + VERSION + "-" + sha256Prefix(body) + "\"");
+
+        synchronized (this) {
+            cache.put(key, avatar);
+        }
+        return avatar;
+    }
+
+    /* =======================
+       HELPERS
+       ======================= */
+
+    static String normalize(String name) {
+        String n = name == null ? "" : name.trim();
+        if (n.startsWith("@")) n = n.substring(1).trim();
+        if (n.codePointCount(0, n.length()) > MAX_NAME_LENGTH) {
+            n = n.substring(0, n.offsetByCodePoints(0, MAX_NAME_LENGTH));
+        }
+        return n.isEmpty() ? "User" : n;
+    }
+
+    // "jane_doe" -> "JD", "Jane Doe" -> "JD", "jane" -> "J"
+    static String initials(String name) {
+        StringBuilder sb = new StringBuilder(2);
+        for (String part : name.split("[\\s._-]+")) {
+            if (part.isEmpty()) continue;
+            sb.appendCodePoint(part.codePointAt(0));
+            if (sb.codePointCount(0, sb.length()) == 2) break;
+        }
+        return sb.isEmpty() ? "?" : sb.toString().toUpperCase(Locale.ROOT);
+    }
+
+    private static byte[] svg(String initials, String color) {
+        String svg = "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"128\" height=\"128\" viewBox=\"0 0 128 128\">"
+                + "<circle cx=\"64\" cy=\"64\" r=\"64\" fill=\"" + color + "\"/>"
+                + "<text x=\"50%\" y=\"50%\" dy=\".35em\" text-anchor=\"middle\" fill=\"#FFFFFF\" "
+                + "font-family=\"Helvetica,Arial,sans-serif\" font-size=\"52\" font-weight=\"600\">"
+                + escapeXml(initials) + "</text></svg>";
+        return svg.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] png(String initials, String color, int edge) {
+        BufferedImage image = new BufferedImage(edge, edge, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setColor(Color.decode(color));
+            g.fillOval(0, 0, edge, edge);
+
+            g.setColor(Color.WHITE);
+            g.setFont(new Font(Font.SANS_SERIF, Font.BOLD, edge * 2 / 5));
+            FontMetrics fm = g.getFontMetrics();
+            int x = (edge - fm.stringWidth(initials)) / 2;
+            int y = (edge - fm.getHeight()) / 2 + fm.getAscent();
+            g.drawString(initials, x, y);
+        } finally {
+            g.dispose();
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "png", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static int snap(int size) {
+        for (int s : PNG_SIZES) {
+            if (size <= s) return s;
+        }
+        return PNG_SIZES[PNG_SIZES.length - 1];
+    }
+
+    private static String escapeXml(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (char c : s.toCharArray()) {
+            switch (c) {
+                case '&' -> sb.append("&amp;");
+                case '<' -> sb.append("&lt;");
+                case '>' -> sb.append("&gt;");
+                case '"' -> sb.append("&quot;");
+                case '\'' -> sb.append("&apos;");
+                default -> sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String sha256Prefix(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.conify.service;
+
+import com.conify.dto.ChatHistoryPage;
+import com.conify.dto.ReadReceiptEvent;
+import com.conify.model.mongo.ChatMessage;
+import com.conify.model.mongo.Conversation;
+import com.mongodb.client.result.UpdateResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 1:1 chat history, read in fixed-size windows instead of whole conversations.
+ *
+ * Every query is an equality on conversationId plus a range on (timestamp, _id), so
+ * the 'conversation_timestamp_id' index answers it by reading exactly one page, however
+ * long the conversation is. The first unread message comes from the
+ * 'conversation_recipient_status_timestamp' index in the same way.
+ *
+ * Read state is a watermark: "read up to message X" turns every earlier unread
+ * message READ with one updateMulti and sends one receipt, instead of a write and an
+ * event per message. Unread counters only ever move by $inc: +1 per send, before the
+ * message is saved (so it can never be read before it was counted), and -n per read,
+ * where n is how many messages that read actually flipped. Sends and reads therefore
+ * commute, and no message is ever counted twice or dropped from the badge.
+ */
+@Service
+public class ChatService {
+
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
+    // Set on conversations whose counters are known to match their messages (see ChatUnreadCountMigration)
+    public static final String EXACT_COUNTS_FIELD = "unreadCountsExact";
+
+    @Value("${app.chat.history.page-size:50}")
+    private int historyPageSize;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    public static String conversationId(Long userA, Long userB) {
+        return Math.min(userA, userB) + "_" + Math.max(userA, userB);
+    }
+
+    /* =======================
+       HISTORY
+       ======================= */
+
+    /**
+     * Latest page when neither cursor is given, {@code limit} messages before {@code before},
+     * or {@code limit} messages after {@code after}. Messages are returned oldest first.
+     */
+    public ChatHistoryPage getHistory(Long userId, Long otherUserId, String before, String after, Integer limit) {
+        String conversationId = conversationId(userId, otherUserId);
+        int pageSize = pageSize(limit);
+        boolean forward = after != null && !after.isBlank();
+
+        Query query = new Query(Criteria.where("conversationId").is(conversationId)).limit(pageSize + 1);
+        if (forward) {
+            query.addCriteria(KeysetCursor.parse(after).newerThan("timestamp"))
+                    .with(Sort.by(Sort.Direction.ASC, "timestamp").and(Sort.by(Sort.Direction.ASC, "_id")));
+        } else {
+            if (before != null && !before.isBlank()) {
+                query.addCriteria(KeysetCursor.parse(before).olderThan("timestamp"));
+            }
+            query.with(Sort.by(Sort.Direction.DESC, "timestamp").and(Sort.by(Sort.Direction.DESC, "_id")));
+        }
+
+        List<ChatMessage> messages = new ArrayList<>(mongoTemplate.find(query, ChatMessage.class));
+        boolean more = messages.size() > pageSize;
+        if (more) messages = new ArrayList<>(messages.subList(0, pageSize));
+        if (!forward) Collections.reverse(messages);
+
+        boolean initial = !forward && (before == null || before.isBlank());
+        boolean hasOlder = forward || more;
+        boolean hasNewer = forward ? more : !initial;
+
+        String olderCursor = messages.isEmpty() ? null : cursorOf(messages.get(0));
+        String newerCursor = messages.isEmpty() ? after : cursorOf(messages.get(messages.size() - 1));
+        String firstUnreadId = initial ? firstUnreadId(conversationId, userId) : null;
+
+        return new ChatHistoryPage(messages, firstUnreadId, olderCursor, newerCursor, hasOlder, hasNewer);
+    }
+
+    /* =======================
+       CONVERSATION STATE
+       ======================= */
+
+    // Called once per message, BEFORE it is saved: last-message preview + the recipient's unread count
+    public void messageSent(ChatMessage message) {
+        mongoTemplate.upsert(
+                new Query(Criteria.where("_id").is(message.getConversationId())),
+                new Update()
+                        .set("lastMessage", new Conversation.LastMessage(
+                                message.getSenderId(), message.getContent(), message.getTimestamp()))
+                        .inc("unreadCounts." + message.getRecipientId(), 1)
+                        .setOnInsert("participants", List.of(message.getSenderId(), message.getRecipientId()))
+                        .setOnInsert(EXACT_COUNTS_FIELD, true),
+                Conversation.class);
+    }
+
+    // Undoes messageSent's count when the message could not be saved after all
+    public void messageDropped(ChatMessage message) {
+        decrementUnread(message.getConversationId(), message.getRecipientId(), 1, new Update());
+    }
+
+    /**
+     * Lowers {@code readerId}'s counter to the number of messages actually unread, for
+     * counters inflated before reads decremented them. The write only lands if the counter
+     * has not moved since it was read, so a concurrent send or read just skips the repair.
+     *
+     * @return true when the counter was already right or has been corrected
+     */
+    public boolean recountUnread(String conversationId, Long readerId) {
+        Conversation conversation = mongoTemplate.findById(conversationId, Conversation.class);
+        if (conversation == null) return true;
+        Integer counted = conversation.getUnreadCounts() == null
+                ? null : conversation.getUnreadCounts().get(String.valueOf(readerId));
+        int unread = (int) mongoTemplate.count(new Query(unreadBy(conversationId, readerId)), ChatMessage.class);
+        // Never raised: a counter below the stored messages is a send between its $inc and its save
+        if (counted == null || counted <= unread) return true;
+
+        String field = "unreadCounts." + readerId;
+        return mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(conversationId).and(field).is(counted)),
+                new Update().set(field, unread),
+                Conversation.class).getModifiedCount() > 0;
+    }
+
+    /**
+     * Marks everything {@code readerId} received in the conversation up to and including
+     * {@code upToMessageId} (the latest message when null) as READ, takes exactly those
+     * off their unread count and, if anything changed, sends one {@link ReadReceiptEvent} to the other side.
+     *
+     * @return the receipt that was sent, or null when there was nothing left to mark
+     */
+    public ReadReceiptEvent markRead(Long readerId, Long otherUserId, String upToMessageId) {
+        String conversationId = conversationId(readerId, otherUserId);
+
+        Query watermarkQuery = new Query(Criteria.where("conversationId").is(conversationId));
+        if (upToMessageId != null && !upToMessageId.isBlank()) {
+            watermarkQuery.addCriteria(Criteria.where("_id").is(upToMessageId));
+        } else {
+            watermarkQuery.with(Sort.by(Sort.Direction.DESC, "timestamp").and(Sort.by(Sort.Direction.DESC, "_id")));
+        }
+        watermarkQuery.fields().include("_id").include("timestamp");
+        ChatMessage watermark = mongoTemplate.findOne(watermarkQuery, ChatMessage.class);
+        if (watermark == null) {
+            if (upToMessageId != null && !upToMessageId.isBlank()) {
+                throw new IllegalArgumentException("Message not found in this conversation");
+            }
+            return null;
+        }
+
+        UpdateResult marked = mongoTemplate.updateMulti(
+                new Query(unreadBy(conversationId, readerId))
+                        .addCriteria(KeysetCursor.at(watermark.getTimestamp(), watermark.getId()).notNewerThan("timestamp")),
+                new Update().set("status", ChatMessage.MessageStatus.READ),
+                ChatMessage.class);
+        long count = marked.getModifiedCount();
+        if (count == 0) return null;
+
+        decrementUnread(conversationId, readerId, (int) count,
+                new Update().set("lastReadMessageIds." + readerId, watermark.getId()));
+
+        ReadReceiptEvent receipt = new ReadReceiptEvent(
+                conversationId, readerId, watermark.getId(), watermark.getTimestamp(), count);
+        messagingTemplate.convertAndSendToUser(String.valueOf(otherUserId), "/queue/read-receipts", receipt);
+        return receipt;
+    }
+
+    /* =======================
+       HELPERS
+       ======================= */
+
+    // $inc by -n, then floor at zero. The floor only ever fires on a counter that was
+    // already too low (e.g. repaired while a send was in flight), never on a correct one.
+    private void decrementUnread(String conversationId, Long readerId, int n, Update alsoApply) {
+        String field = "unreadCounts." + readerId;
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(conversationId)),
+                alsoApply.inc(field, -n), Conversation.class);
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(conversationId).and(field).lt(0)),
+                new Update().set(field, 0), Conversation.class);
+    }
+
+    // Messages addressed to readerId that they have not read yet (null status: legacy rows)
+    private Criteria unreadBy(String conversationId, Long readerId) {
+        return Criteria.where("conversationId").is(conversationId)
+                .and("recipientId").is(readerId)
+                .and("status").in(ChatMessage.MessageStatus.SENT, ChatMessage.MessageStatus.DELIVERED, null);
+    }
+
+    private String firstUnreadId(String conversationId, Long readerId) {
+        Query query = new Query(unreadBy(conversationId, readerId))
+                .with(Sort.by(Sort.Direction.ASC, "timestamp").and(Sort.by(Sort.Direction.ASC, "_id")))
+                .limit(1);
+        query.fields().include("_id");
+        ChatMessage first = mongoTemplate.findOne(query, ChatMessage.class);
+        return first == null ? null : first.getId();
+    }
+
+    private static String cursorOf(ChatMessage message) {
+        return KeysetCursor.of(message.getTimestamp(), message.getId());
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null || limit <= 0) return historyPageSize;
+        return Math.min(limit, MAX_HISTORY_PAGE_SIZE);
+    }
+}
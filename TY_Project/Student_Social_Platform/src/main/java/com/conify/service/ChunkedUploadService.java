@@ -0,0 +1,298 @@
+package com.conify.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resumable uploads: initiate with the total size and SHA-256, PUT chunks at the
+ * current offset (appended to a temp file with FileChannel), then finish. A dropped
+ * connection only loses the chunk in flight; the client asks for the offset and
+ * continues from there. On finish the whole file is checked against the SHA-256 and
+ * handed to the caller as a stream (normally MediaProcessingService.store).
+ *
+ * Sessions live in memory, like the rest of the app's hot state; temp files sit in
+ * app.upload.dir/.chunks (never served) and are swept after app.uploads.chunked.ttl-ms.
+ */
+@Service
+public class ChunkedUploadService {
+
+    private static final String CHUNK_DIR = ".chunks";
+
+    @Value("${app.upload.dir:uploads/}")
+    private String uploadDir;
+
+    @Value("${app.uploads.chunked.max-bytes:10485760}")
+    private long maxBytes;
+
+    @Value("${app.uploads.chunked.chunk-bytes:1048576}")
+    private int chunkBytes;
+
+    @Value("${app.uploads.chunked.max-per-user:5}")
+    private int maxPerUser;
+
+    @Value("${app.uploads.chunked.ttl-ms:3600000}")
+    private long ttlMs;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    private Path dir;
+
+    private Counter chunkCounter;
+    private Counter completedCounter;
+    private Counter checksumFailedCounter;
+
+    /**
+     * Upload id unknown, expired, already finished or owned by someone else.
+     */
+    public static class UploadNotFoundException extends RuntimeException {
+        public UploadNotFoundException() { super("Upload not found or expired"); }
+    }
+
+    /**
+     * The chunk does not start where the server's copy ends; the client resumes from {@link #getOffset()}.
+     */
+    public static class OffsetMismatchException extends RuntimeException {
+        private final long offset;
+        public OffsetMismatchException(long offset) {
+            super("Expected offset " + offset);
+            this.offset = offset;
+        }
+        public long getOffset() { return offset; }
+    }
+
+    @FunctionalInterface
+    public interface CompletedUploadHandler<T> {
+        T handle(InputStream verifiedContent) throws Exception;
+    }
+
+    public record UploadStatus(String uploadId, long offset, long size, int chunkSize) {}
+
+    private static final class Session {
+        final String id;
+        final Long userId;
+        final long size;
+        final String sha256;
+        final Path file;
+        long received;
+        volatile long lastActivity = System.currentTimeMillis();
+        boolean closed;
+
+        Session(String id, Long userId, long size, String sha256, Path file) {
+            this.id = id;
+            this.userId = userId;
+            this.size = size;
+            this.sha256 = sha256;
+            this.file = file;
+        }
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        dir = Paths.get(uploadDir).toAbsolutePath().normalize().resolve(CHUNK_DIR);
+        Files.createDirectories(dir);
+        // Nothing to resume across a restart: sessions were in memory
+        try (var leftovers = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) leftovers::iterator) Files.deleteIfExists(file);
+        }
+
+        Gauge.builder("uploads.chunked.active", sessions, Map::size)
+                .description("Resumable uploads in progress")
+                .register(meterRegistry);
+        chunkCounter = meterRegistry.counter("uploads.chunked.chunks");
+        completedCounter = meterRegistry.counter("uploads.chunked.completed");
+        checksumFailedCounter = meterRegistry.counter("uploads.chunked.checksum_failed");
+    }
+
+    /* =======================
+       PROTOCOL
+       ======================= */
+
+    public UploadStatus initiate(Long userId, long size, String sha256) throws IOException {
+        if (size <= 0 || size > maxBytes) {
+            throw new IllegalArgumentException("Size must be between 1 and " + maxBytes + " bytes");
+        }
+        if (sha256 == null || !sha256.matches("(?i)[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("sha256 must be 64 hex characters");
+        }
+        long open = sessions.values().stream().filter(s -> s.userId.equals(userId)).count();
+        if (open >= maxPerUser) {
+            throw new IllegalArgumentException("Too many uploads in progress");
+        }
+
+        String id = UUID.randomUUID().toString();
+        Path file = dir.resolve(id + ".part");
+        Files.createFile(file);
+        sessions.put(id, new Session(id, userId, size, sha256.toLowerCase(Locale.ROOT), file));
+        return new UploadStatus(id, 0, size, chunkBytes);
+    }
+
+    public UploadStatus status(String uploadId, Long userId) {
+        Session s = session(uploadId, userId);
+        synchronized (s) {
+            return new UploadStatus(s.id, s.received, s.size, chunkBytes);
+        }
+    }
+
+    /**
+     * Appends the request body at {@code offset}. A chunk that overlaps what is
+     * already stored (a retry whose response was lost) only contributes its new bytes.
+     * If the body breaks off, whatever arrived is kept and the next chunk starts there.
+     * An oversized chunk is refused whole: up front from {@code length} (the request's
+     * Content-Length, -1 when unknown), otherwise by rolling back what it wrote.
+     */
+    public UploadStatus appendChunk(String uploadId, Long userId, long offset, long length, InputStream body) throws IOException {
+        Session s = session(uploadId, userId);
+        synchronized (s) {
+            if (s.closed) throw new UploadNotFoundException();
+            if (offset < 0 || offset > s.received) throw new OffsetMismatchException(s.received);
+
+            long limit = Math.min(chunkBytes, s.size - offset);
+            if (length > limit) throw new IllegalArgumentException("Chunk larger than " + limit + " bytes");
+
+            long start = s.received;
+            long skip = s.received - offset;
+            ByteBuffer buffer = ByteBuffer.allocate(Math.min(chunkBytes, 64 * 1024));
+
+            try (ReadableByteChannel in = Channels.newChannel(body);
+                 FileChannel out = FileChannel.open(s.file, StandardOpenOption.WRITE)) {
+                out.position(s.received);
+                long read = 0;
+                while (read < limit) {
+                    buffer.limit((int) Math.min(buffer.capacity(), limit - read));
+                    int n = in.read(buffer);
+                    if (n < 0) break;
+                    read += n;
+                    buffer.flip();
+                    // Drop the part of a retried chunk we already have
+                    if (skip > 0) {
+                        int drop = (int) Math.min(skip, buffer.remaining());
+                        buffer.position(buffer.position() + drop);
+                        skip -= drop;
+                    }
+                    while (buffer.hasRemaining()) s.received += out.write(buffer);
+                    buffer.clear();
+                }
+                if (read == limit && in.read(ByteBuffer.allocate(1)) >= 0) {
+                    // Keep nothing from it, so the offset the client sees is unchanged
+                    out.truncate(start);
+                    s.received = start;
+                    throw new IllegalArgumentException("Chunk larger than " + limit + " bytes");
+                }
+            } finally {
+                s.lastActivity = System.currentTimeMillis();
+            }
+            chunkCounter.increment();
+            return new UploadStatus(s.id, s.received, s.size, chunkBytes);
+        }
+    }
+
+    /**
+     * Verifies the complete file against the SHA-256 given at initiate, passes it to
+     * {@code handler} and deletes the session whatever the outcome.
+     */
+    public <T> T finish(String uploadId, Long userId, CompletedUploadHandler<T> handler) throws Exception {
+        Session s = session(uploadId, userId);
+        synchronized (s) {
+            if (s.closed) throw new UploadNotFoundException();
+            if (s.received != s.size) throw new OffsetMismatchException(s.received);
+            s.closed = true;
+        }
+
+        try {
+            if (!s.sha256.equals(sha256Of(s.file))) {
+                checksumFailedCounter.increment();
+                throw new IllegalArgumentException("Checksum mismatch, upload again");
+            }
+            try (InputStream in = Files.newInputStream(s.file)) {
+                T result = handler.handle(in);
+                completedCounter.increment();
+                return result;
+            }
+        } finally {
+            remove(s);
+        }
+    }
+
+    /* =======================
+       CLEANUP
+       ======================= */
+
+    @Scheduled(fixedDelayString = "${app.uploads.chunked.sweep-ms:300000}")
+    public void sweepExpired() {
+        long cutoff = System.currentTimeMillis() - ttlMs;
+        for (Session s : sessions.values()) {
+            if (s.lastActivity >= cutoff) continue;
+            synchronized (s) {
+                // A chunk may have landed since the unlocked check
+                if (s.closed || s.lastActivity >= cutoff) continue;
+                s.closed = true;
+            }
+            remove(s);
+        }
+    }
+
+    /* =======================
+       HELPERS
+       ======================= */
+
+    private Session session(String uploadId, Long userId) {
+        Session s = uploadId == null ? null : sessions.get(uploadId);
+        // Someone else's id looks exactly like an unknown one
+        if (s == null || !s.userId.equals(userId)) throw new UploadNotFoundException();
+        return s;
+    }
+
+    private void remove(Session s) {
+        sessions.remove(s.id);
+        try {
+            Files.deleteIfExists(s.file);
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not delete upload temp file " + s.file + ": " + e.getMessage());
+        }
+    }
+
+    private static String sha256Of(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (in.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,156 @@
+package com.conify.service;
+
+import com.conify.model.mongo.CommunityMessage;
+import com.conify.model.mongo.Post;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Periodically repairs commentCount on posts and community messages.
+ * CommentService keeps the counters with $inc, which can drift if a request dies
+ * between the $inc and saving the comment. This job walks each collection by _id in
+ * batches, recounts just that batch's comments with one $group, and fixes only the
+ * documents that differ, so memory stays bounded by the batch size.
+ *
+ * Documents commented on within the grace period are skipped: their $inc may already
+ * be visible while the comment itself is not saved yet.
+ */
+@Service
+public class CommentCountReconciler {
+
+    @Value("${app.comments.reconcile-batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.comments.reconcile-grace-ms:300000}")
+    private long graceMs;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private HotFeedCache hotFeedCache;
+
+    @Autowired
+    private FeedEventCoalescer feedEventCoalescer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Counter fixedCounter;
+
+    @PostConstruct
+    public void init() {
+        fixedCounter = Counter.builder("comments.count.reconciled")
+                .description("Documents whose commentCount had drifted and was corrected")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.comments.reconcile-initial-delay-ms:60000}",
+            fixedDelayString = "${app.comments.reconcile-ms:3600000}")
+    public void reconcile() {
+        try {
+            Instant cutoff = Instant.now().minusMillis(graceMs);
+            int fixedPosts = reconcile(Post.class, cutoff);
+            int fixedMessages = reconcile(CommunityMessage.class, cutoff);
+
+            if (fixedPosts + fixedMessages > 0) {
+                System.out.println("🧹 Comment counts reconciled: " + fixedPosts + " posts, "
+                        + fixedMessages + " community messages");
+            }
+        } catch (Exception e) {
+            System.err.println("⚠️ Comment count reconciliation failed: " + e.getMessage());
+        }
+    }
+
+    /* =======================
+       HELPERS
+       ======================= */
+
+    private int reconcile(Class<?> type, Instant cutoff) {
+        String collection = mongoTemplate.getCollectionName(type);
+        int fixed = 0;
+        Object lastId = null;
+
+        while (true) {
+            Query page = new Query().with(Sort.by(Sort.Direction.ASC, "_id")).limit(batchSize);
+            if (lastId != null) page.addCriteria(Criteria.where("_id").gt(lastId));
+            page.fields().include("commentCount").include("lastCommentAt");
+
+            List<Document> batch = mongoTemplate.find(page, Document.class, collection);
+            if (batch.isEmpty()) return fixed;
+            fixed += fixBatch(type, batch, cutoff);
+            if (batch.size() < batchSize) return fixed;
+            lastId = batch.get(batch.size() - 1).get("_id");
+        }
+    }
+
+    private int fixBatch(Class<?> type, List<Document> batch, Instant cutoff) {
+        // Read the stored counters before counting: a comment added in between then
+        // makes the conditional update below miss instead of undercounting
+        Map<String, Document> candidates = new HashMap<>();
+        for (Document doc : batch) {
+            Date lastCommentAt = doc.getDate("lastCommentAt");
+            if (lastCommentAt != null && lastCommentAt.toInstant().isAfter(cutoff)) continue;
+            candidates.put(doc.get("_id").toString(), doc);
+        }
+        if (candidates.isEmpty()) return 0;
+
+        Map<String, Integer> actual = actualCounts(candidates.keySet());
+        int fixed = 0;
+
+        for (Map.Entry<String, Document> e : candidates.entrySet()) {
+            Object stored = e.getValue().get("commentCount");
+            int expected = actual.getOrDefault(e.getKey(), 0);
+            if (stored instanceof Number n && n.intValue() == expected) continue;
+
+            // Only if untouched since we read it (null also matches a missing field)
+            long modified = mongoTemplate.updateFirst(
+                    new Query(Criteria.where("_id").is(e.getValue().get("_id")).and("commentCount").is(stored)),
+                    new Update().set("commentCount", expected),
+                    type).getModifiedCount();
+            if (modified == 0) continue;
+
+            fixed++;
+            fixedCounter.increment();
+            if (type == Post.class) {
+                hotFeedCache.updateCommentCount(e.getKey(), expected);
+                feedEventCoalescer.commentCountChanged(e.getKey(), expected);
+            }
+        }
+        return fixed;
+    }
+
+    // postId -> number of comments (replies included) for one batch, from a single $group
+    private Map<String, Integer> actualCounts(Collection<String> postIds) {
+        Aggregation agg = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("postId").in(postIds)),
+                Aggregation.group("postId").count().as("count"));
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(agg, "comments", Document.class).getMappedResults()) {
+            Object postId = row.get("_id");
+            if (postId != null) counts.put(postId.toString(), ((Number) row.get("count")).intValue());
+        }
+        return counts;
+    }
+}
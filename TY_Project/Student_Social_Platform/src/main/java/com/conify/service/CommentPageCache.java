@@ -0,0 +1,197 @@
+package com.conify.service;
+
+import com.conify.dto.CommentThread;
+import com.conify.dto.CommentThreadPage;
+import com.conify.model.mongo.Comment;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of the first comment-thread page of recently viewed posts.
+ *
+ * A post only takes a slot in the page LRU once its first page has been viewed
+ * min-hits times. Until then its views are counted in a separate bounded map, so a
+ * crawl over many posts viewed once churns that map and never evicts the hot pages.
+ *
+ * Each post's entry carries a version that every new comment bumps. A page loaded
+ * from Mongo is only stored if the version is unchanged since the load began, so a
+ * comment landing mid-load can never be hidden behind a stale page. New comments patch
+ * the cached page in place where that is unambiguous (new top-level comment, reply to
+ * a top-level comment with room in its preview) and drop it otherwise.
+ */
+@Service
+public class CommentPageCache {
+
+    // Same order as the thread query: (timestamp DESC, _id DESC); hex ObjectIds sort like ObjectIds
+    private static final Comparator<Comment> PAGE_ORDER = Comparator
+            .comparing(Comment::getTimestamp, Comparator.reverseOrder())
+            .thenComparing(Comment::getId, Comparator.reverseOrder());
+
+    @Value("${app.comments.cache.max-posts:1000}")
+    private int maxPosts;
+
+    // Views of the first page before it is cached, so one-off posts do not fill the cache
+    @Value("${app.comments.cache.min-hits:2}")
+    private int minHits;
+
+    @Value("${app.comments.page-size:20}")
+    private int pageSize;
+
+    @Value("${app.comments.preview-replies:3}")
+    private int previewReplies;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Map<String, Entry> entries;  // admitted posts only
+    private Map<String, Integer> views;   // posts seen fewer than min-hits times
+
+    private Counter hitCounter;
+    private Counter missCounter;
+
+    private static final class Entry {
+        long version;
+        CommentThreadPage page; // null until the first load lands, or after an invalidation
+    }
+
+    @PostConstruct
+    public void init() {
+        // Access-ordered: the least recently viewed post is evicted first
+        entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxPosts;
+            }
+        };
+        views = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                return size() > maxPosts;
+            }
+        };
+        hitCounter = meterRegistry.counter("comments.page.cache", "result", "hit");
+        missCounter = meterRegistry.counter("comments.page.cache", "result", "miss");
+    }
+
+    /* =======================
+       READ
+       ======================= */
+
+    public CommentThreadPage firstPage(String postId, Supplier<CommentThreadPage> loader) {
+        Entry entry;
+        long version = 0;
+        synchronized (this) {
+            entry = entries.get(postId);
+            if (entry != null && entry.page != null) {
+                hitCounter.increment();
+                return entry.page;
+            }
+            if (entry == null) {
+                int seen = views.merge(postId, 1, Integer::sum);
+                if (seen >= minHits) {
+                    views.remove(postId);
+                    entry = new Entry();
+                    entries.put(postId, entry);
+                }
+            }
+            if (entry != null) version = entry.version;
+        }
+
+        missCounter.increment();
+        CommentThreadPage page = loader.get();
+
+        if (entry != null) {
+            synchronized (this) {
+                // Same entry (not evicted) and no comment since we started loading
+                if (entries.get(postId) == entry && entry.version == version) entry.page = page;
+            }
+        }
+        return page;
+    }
+
+    /* =======================
+       WRITE (from CommentService.addComment)
+       ======================= */
+
+    public synchronized void commentAdded(Comment comment) {
+        Entry entry = entries.get(comment.getPostId());
+        if (entry == null) return;
+
+        entry.version++;
+        if (entry.page != null) entry.page = patched(entry.page, comment);
+    }
+
+    /* =======================
+       HELPERS
+       ======================= */
+
+    // The page with the comment applied, or null when that cannot be done reliably
+    private CommentThreadPage patched(CommentThreadPage page, Comment comment) {
+        List<CommentThread> threads = page.getComments();
+
+        // New top-level comment: slotted in page order, the last one may spill onto page 2
+        if (comment.getParentCommentId() == null) {
+            if (indexOf(threads, comment.getId()) >= 0) return page; // loaded after it was saved
+
+            // Concurrent saves can arrive out of order, so it is not always the newest
+            int at = 0;
+            while (at < threads.size() && PAGE_ORDER.compare(threads.get(at).getComment(), comment) < 0) at++;
+            if (at == threads.size() && page.isHasMore()) return page; // sorts onto a later page
+
+            List<CommentThread> updated = new ArrayList<>(threads);
+            updated.add(at, new CommentThread(comment, 0, List.of()));
+
+            boolean hasMore = page.isHasMore();
+            if (updated.size() > pageSize) {
+                updated.remove(updated.size() - 1);
+                hasMore = true;
+            }
+            String nextCursor = hasMore ? cursorOf(updated.get(updated.size() - 1).getComment()) : null;
+            return new CommentThreadPage(updated, nextCursor, hasMore);
+        }
+
+        int i = indexOf(threads, comment.getParentCommentId());
+        if (i < 0) {
+            // Reply to a preview reply: its count is on this page but we cannot tell if it is current
+            for (CommentThread t : threads) {
+                if (indexOf(t.getReplies(), comment.getParentCommentId()) >= 0) return null;
+            }
+            // Reply somewhere not shown on this page
+            return page;
+        }
+
+        CommentThread parent = threads.get(i);
+        if (indexOf(parent.getReplies(), comment.getId()) >= 0) return page;
+        // Preview is full: the reply would not be shown, and the count may or may not include it
+        if (parent.getReplies().size() >= previewReplies) return null;
+
+        List<CommentThread> replies = new ArrayList<>(parent.getReplies());
+        replies.add(new CommentThread(comment, 0, List.of()));
+
+        List<CommentThread> updated = new ArrayList<>(threads);
+        updated.set(i, new CommentThread(parent.getComment(), parent.getReplyCount() + 1, replies));
+        return new CommentThreadPage(updated, page.getNextCursor(), page.isHasMore());
+    }
+
+    private static int indexOf(List<CommentThread> threads, String commentId) {
+        for (int i = 0; i < threads.size(); i++) {
+            if (threads.get(i).getComment().getId().equals(commentId)) return i;
+        }
+        return -1;
+    }
+
+    private static String cursorOf(Comment comment) {
+        return KeysetCursor.of(comment.getTimestamp(), comment.getId());
+    }
+}
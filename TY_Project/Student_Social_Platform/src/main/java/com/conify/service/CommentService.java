@@ -1,31 +1,56 @@
 package com.conify.service;
 
+import com.conify.dto.CommentThread;
+import com.conify.dto.CommentThreadPage;
 import com.conify.model.mongo.Comment;
+import com.conify.model.mongo.CommunityMessage;
 import com.conify.model.mongo.Notification;
 import com.conify.model.mongo.Post;
 import com.conify.model.mongo.UserProfile;
 import com.conify.repository.mongo.CommentRepository;
-import com.conify.repository.mongo.CommunityMessageRepository;
-import com.conify.repository.mongo.PostRepository;
 import com.conify.repository.mongo.UserProfileRepository;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 @Service
 public class CommentService {
 
     @Autowired private CommentRepository commentRepository;
-    @Autowired private PostRepository postRepository;
-    @Autowired private CommunityMessageRepository communityMessageRepository;
     @Autowired private UserProfileRepository userProfileRepository;
     @Autowired private NotificationService notificationService;
     @Autowired private SimpMessagingTemplate messagingTemplate;
+    @Autowired private HotFeedCache hotFeedCache;
+    @Autowired private FeedEventCoalescer feedEventCoalescer;
+    @Autowired private MongoTemplate mongoTemplate;
+    @Autowired private CommentPageCache commentPageCache;
+
+    @Value("${app.comments.page-size:20}")
+    private int commentPageSize;
+
+    // Replies shipped with each top-level comment in a thread page
+    @Value("${app.comments.preview-replies:3}")
+    private int previewReplies;
+
+    private static final int MAX_COMMENT_PAGE_SIZE = 100;
 
     /* =============================
        FETCH
@@ -36,9 +61,130 @@ public class CommentService {
                 .findByPostIdAndParentCommentIdIsNullOrderByTimestampDesc(postId);
     }
 
-    public List<Comment> getReplies(String commentId) {
-        return commentRepository
+    // All direct replies, oldest first, each with its own reply count
+    public List<CommentThread> getReplies(String commentId) {
+        List<Comment> replies = commentRepository
                 .findByParentCommentIdOrderByTimestampAsc(commentId);
+        Map<String, Integer> counts = replyCounts(idsOf(replies));
+
+        List<CommentThread> result = new ArrayList<>(replies.size());
+        for (Comment r : replies) {
+            result.add(new CommentThread(r, counts.getOrDefault(r.getId(), 0), List.of()));
+        }
+        return result;
+    }
+
+    /* =============================
+       THREAD PAGE (ONE ROUND TRIP)
+       Top-level comments by keyset cursor on (timestamp, _id) DESC,
+       plus the first K replies and reply counts for the whole page
+       from a single $in on parentCommentId.
+    ============================= */
+
+    public CommentThreadPage getThread(String postId, String cursor, Integer limit) {
+        int pageSize = (limit == null || limit <= 0) ? commentPageSize : Math.min(limit, MAX_COMMENT_PAGE_SIZE);
+
+        // First page at the default size: what every shared link opens, served from the hot cache
+        if ((cursor == null || cursor.isBlank()) && pageSize == commentPageSize) {
+            return commentPageCache.firstPage(postId, () -> loadThreadPage(postId, null, pageSize));
+        }
+        return loadThreadPage(postId, cursor, pageSize);
+    }
+
+    private CommentThreadPage loadThreadPage(String postId, String cursor, int pageSize) {
+
+        Query query = new Query(Criteria.where("postId").is(postId).and("parentCommentId").is(null))
+                .with(Sort.by(Sort.Direction.DESC, "timestamp").and(Sort.by(Sort.Direction.DESC, "_id")))
+                .limit(pageSize + 1);
+        if (cursor != null && !cursor.isBlank()) {
+            query.addCriteria(KeysetCursor.parse(cursor).olderThan("timestamp"));
+        }
+
+        List<Comment> top = mongoTemplate.find(query, Comment.class);
+        boolean hasMore = top.size() > pageSize;
+        if (hasMore) top = top.subList(0, pageSize);
+
+        String nextCursor = null;
+        if (hasMore) {
+            Comment last = top.get(top.size() - 1);
+            nextCursor = KeysetCursor.of(last.getTimestamp(), last.getId());
+        }
+        return new CommentThreadPage(withReplyPreviews(top), nextCursor, hasMore);
+    }
+
+    private List<CommentThread> withReplyPreviews(List<Comment> parents) {
+        if (parents.isEmpty()) return List.of();
+
+        // Counts and previews separately: the count is a plain $group, and each preview
+        // reads at most K replies, so neither grows with the size of a thread
+        Map<String, Integer> counts = replyCounts(idsOf(parents));
+        Map<String, List<Comment>> previews = replyPreviews(idsOf(parents));
+        List<Comment> allPreviews = new ArrayList<>();
+        previews.values().forEach(allPreviews::addAll);
+
+        // Second level: counts only, so the client knows which previewed replies can expand
+        Map<String, Integer> nestedCounts = replyCounts(idsOf(allPreviews));
+
+        List<CommentThread> result = new ArrayList<>(parents.size());
+        for (Comment parent : parents) {
+            List<CommentThread> replies = new ArrayList<>();
+            for (Comment r : previews.getOrDefault(parent.getId(), List.of())) {
+                replies.add(new CommentThread(r, nestedCounts.getOrDefault(r.getId(), 0), List.of()));
+            }
+            result.add(new CommentThread(parent, counts.getOrDefault(parent.getId(), 0), replies));
+        }
+        return result;
+    }
+
+    // parentCommentId -> number of direct replies, for all given ids in one $group
+    private Map<String, Integer> replyCounts(List<String> parentIds) {
+        Map<String, Integer> counts = new HashMap<>();
+        if (parentIds.isEmpty()) return counts;
+
+        Aggregation agg = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("parentCommentId").in(parentIds)),
+                Aggregation.group("parentCommentId").count().as("replyCount"));
+        for (Document row : mongoTemplate.aggregate(agg, "comments", Document.class).getMappedResults()) {
+            counts.put(row.getString("_id"), ((Number) row.get("replyCount")).intValue());
+        }
+        return counts;
+    }
+
+    // parentCommentId -> its first K replies, oldest first: one $lookup per parent,
+    // each an index-bounded $sort + $limit on 'parent_timestamp'
+    private Map<String, List<Comment>> replyPreviews(List<String> parentIds) {
+        List<ObjectId> ids = parentIds.stream().map(ObjectId::new).toList();
+
+        // Raw stage: Spring's query mapper cannot render $expr inside a lookup sub-pipeline
+        AggregationOperation lookupReplies = context -> new Document("$lookup", new Document("from", "comments")
+                .append("let", new Document("parentId", new Document("$toString", "$_id")))
+                .append("pipeline", List.of(
+                        new Document("$match", new Document("$expr",
+                                new Document("$eq", List.of("$parentCommentId", "$$parentId")))),
+                        new Document("$sort", new Document("timestamp", 1).append("_id", 1)),
+                        new Document("$limit", previewReplies)))
+                .append("as", "replies"));
+
+        Aggregation agg = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("_id").in(ids)),
+                Aggregation.project("_id"),
+                lookupReplies);
+
+        Map<String, List<Comment>> previews = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(agg, "comments", Document.class).getMappedResults()) {
+            List<Comment> replies = new ArrayList<>();
+            for (Document raw : row.getList("replies", Document.class)) {
+                replies.add(mongoTemplate.getConverter().read(Comment.class, raw));
+            }
+            previews.put(row.get("_id").toString(), replies);
+        }
+        return previews;
+    }
+
+    private static List<String> idsOf(List<Comment> comments) {
+        List<String> ids = new ArrayList<>(comments.size());
+        for (Comment c : comments) ids.add(c.getId());
+        return ids;
     }
 
     /* =============================
@@ -56,6 +202,8 @@ public class CommentService {
         comment.setUserId(userId);
         comment.setContent(content);
         comment.setParentCommentId(parentCommentId);
+        // Millisecond precision, same as Mongo stores, so cursors built from it round-trip
+        comment.setTimestamp(Instant.now().truncatedTo(ChronoUnit.MILLIS));
         comment.setAuthor(
                 new Comment.AuthorSnapshot(
                         profile.getUsername(),
@@ -63,25 +211,37 @@ public class CommentService {
                 )
         );
 
-        Comment saved = commentRepository.save(comment);
-
         /* =============================
-           NORMAL POST
+           COUNT FIRST, THEN SAVE
+           One $inc; the updated count comes back from the same call. It also stamps
+           lastCommentAt, which keeps CommentCountReconciler away until the save below
+           has landed, so a reconcile in between cannot leave the count one too high.
         ============================= */
 
-        Optional<Post> postOpt = postRepository.findById(postId);
-        if (postOpt.isPresent()) {
+        Post post = incrementCommentCount(postId, Post.class, 1, "userId");
+        CommunityMessage msg = post == null
+                ? incrementCommentCount(postId, CommunityMessage.class, 1, "senderId", "communityId")
+                : null;
+
+        Comment saved;
+        try {
+            saved = commentRepository.save(comment);
+        } catch (RuntimeException e) {
+            if (post != null) incrementCommentCount(postId, Post.class, -1);
+            if (msg != null) incrementCommentCount(postId, CommunityMessage.class, -1);
+            throw e;
+        }
+        // Patch/invalidate the cached first page before anyone hears about the comment
+        commentPageCache.commentAdded(saved);
 
-            Post post = postOpt.get();
+        /* =============================
+           NORMAL POST
+        ============================= */
 
-            // 🔥 AUTHORITATIVE COUNT (RACE SAFE)
-            long rawCount = commentRepository.countByPostId(postId);
-            int count = rawCount > Integer.MAX_VALUE
-                    ? Integer.MAX_VALUE
-                    : (int) rawCount;
+        if (post != null) {
 
-            post.setCommentCount(count);
-            postRepository.save(post);
+            int count = post.getCommentCount();
+            hotFeedCache.updateCommentCount(postId, count);
 
             notificationService.createNotification(
                     userId,
@@ -105,16 +265,8 @@ public class CommentService {
                     postPayload
             );
 
-            // ---------- 🔥 HOME FEED ----------
-            Map<String, Object> feedPayload = new HashMap<>();
-            feedPayload.put("type", "COMMENT_ADDED");
-            feedPayload.put("postId", postId);
-            feedPayload.put("commentCount", count);
-
-            messagingTemplate.convertAndSend(
-                    "/topic/feed",
-                    feedPayload
-            );
+            // ---------- 🔥 HOME FEED (coalesced delta) ----------
+            feedEventCoalescer.commentCountChanged(postId, count);
 
             return saved;
         }
@@ -123,15 +275,9 @@ public class CommentService {
            COMMUNITY POST
         ============================= */
 
-        communityMessageRepository.findById(postId).ifPresent(msg -> {
+        if (msg != null) {
 
-            long rawCount = commentRepository.countByPostId(postId);
-            int count = rawCount > Integer.MAX_VALUE
-                    ? Integer.MAX_VALUE
-                    : (int) rawCount;
-
-            msg.setCommentCount(count);
-            communityMessageRepository.save(msg);
+            int count = msg.getCommentCount();
 
             notificationService.createNotification(
                     userId,
@@ -163,15 +309,8 @@ public class CommentService {
                     postPayload
             );
 
-            messagingTemplate.convertAndSend(
-                    "/topic/feed",
-                    Map.of(
-                            "type", "COMMENT_ADDED",
-                            "postId", postId,
-                            "commentCount", count
-                    )
-            );
-        });
+            feedEventCoalescer.commentCountChanged(postId, count);
+        }
 
         /* =============================
            THREAD REPLY NOTIFICATION
@@ -192,4 +331,20 @@ public class CommentService {
 
         return saved;
     }
+
+    /* =============================
+       HELPERS
+    ============================= */
+
+    // $inc commentCount and return the updated document (only the requested fields), or null if absent
+    private <T> T incrementCommentCount(String id, Class<T> type, int delta, String... fields) {
+        Query query = new Query(Criteria.where("_id").is(id));
+        query.fields().include("commentCount");
+        for (String field : fields) query.fields().include(field);
+        return mongoTemplate.findAndModify(
+                query,
+                new Update().inc("commentCount", delta).currentDate("lastCommentAt"),
+                FindAndModifyOptions.options().returnNew(true),
+                type);
+    }
 }
@@ -0,0 +1,156 @@
+package com.conify.service;
+
+import com.conify.model.mongo.EmailOutboxMessage;
+import com.conify.repository.mongo.EmailOutboxRepository;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drains the 'email_outbox' collection in batches.
+ * A whole batch goes through one {@code send(MimeMessage...)} call, which
+ * JavaMailSenderImpl delivers over a single SMTP connection (one TLS/AUTH handshake).
+ * Failed messages are retried with exponential backoff until max-attempts.
+ */
+@Service
+public class EmailOutboxDispatcher {
+
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Value("${app.email.outbox.batch-size:20}")
+    private int batchSize;
+
+    @Value("${app.email.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.email.outbox.backoff-ms:30000}")
+    private long backoffMs;
+
+    @Scheduled(fixedDelayString = "${app.email.outbox.poll-ms:2000}")
+    public void dispatch() {
+        try {
+            // Keep going while batches come back full, so a backlog drains in one tick
+            int picked;
+            do {
+                picked = dispatchBatch(Instant.now());
+            } while (picked == batchSize);
+        } catch (Exception e) {
+            System.err.println("⚠️ Email outbox dispatch failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sends one batch of due messages and records the outcome of each.
+     * Returns how many messages were picked up.
+     */
+    int dispatchBatch(Instant now) {
+        List<EmailOutboxMessage> batch = emailOutboxRepository
+                .findByStatusAndNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+                        EmailOutboxMessage.Status.PENDING, now, PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) return 0;
+
+        // MailSendException reports failures keyed by the MimeMessage instance;
+        // insertion order keeps the oldest message first on the wire
+        Map<MimeMessage, EmailOutboxMessage> byMime = new LinkedHashMap<>();
+        Map<EmailOutboxMessage, Exception> failures = new IdentityHashMap<>();
+
+        for (EmailOutboxMessage message : batch) {
+            try {
+                byMime.put(toMimeMessage(message), message);
+            } catch (MessagingException | IllegalArgumentException e) {
+                // Malformed row (bad address, missing body): retry/fail it alone
+                failures.put(message, e);
+            }
+        }
+
+        if (!byMime.isEmpty()) {
+            try {
+                mailSender.send(byMime.keySet().toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                // Per-message failures; a connection failure lists every message
+                Map<Object, Exception> failed = e.getFailedMessages();
+                if (failed.isEmpty()) {
+                    byMime.values().forEach(m -> failures.put(m, e));
+                } else {
+                    failed.forEach((mime, ex) -> {
+                        EmailOutboxMessage m = byMime.get(mime);
+                        if (m != null) failures.put(m, ex);
+                    });
+                }
+            } catch (MailException e) {
+                // Auth / preparation failure: nothing in the batch went out
+                byMime.values().forEach(m -> failures.put(m, e));
+            }
+        }
+
+        for (EmailOutboxMessage message : batch) {
+            Exception error = failures.get(message);
+            if (error == null) {
+                markSent(message, now);
+            } else {
+                scheduleRetry(message, error, now);
+            }
+        }
+
+        emailOutboxRepository.saveAll(batch);
+        return batch.size();
+    }
+
+    /* =======================
+       HELPERS
+       ======================= */
+
+    private MimeMessage toMimeMessage(EmailOutboxMessage message) throws MessagingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+        helper.setTo(message.getToEmail());
+        helper.setSubject(message.getSubject());
+        helper.setText(message.getHtmlBody(), true); // true = this is HTML
+        return mimeMessage;
+    }
+
+    private void markSent(EmailOutboxMessage message, Instant now) {
+        message.setStatus(EmailOutboxMessage.Status.SENT);
+        message.setAttempts(message.getAttempts() + 1);
+        message.setSentAt(now);
+        message.setLastError(null);
+        message.setHtmlBody(null); // OTP bodies are not kept once delivered
+    }
+
+    private void scheduleRetry(EmailOutboxMessage message, Exception error, Instant now) {
+        int attempts = message.getAttempts() + 1;
+        message.setAttempts(attempts);
+        message.setLastError(error.getMessage());
+
+        if (attempts >= maxAttempts) {
+            message.setStatus(EmailOutboxMessage.Status.FAILED);
+            System.err.println("❌ Giving up on email " + message.getId() + " after " + attempts + " attempts");
+            return;
+        }
+
+        // backoff, 2x backoff, 4x backoff ... capped at one hour
+        long delay = backoffMs << Math.min(attempts - 1, 20);
+        message.setNextAttemptAt(now.plus(Duration.ofMillis(Math.min(delay, MAX_BACKOFF.toMillis()))));
+    }
+}
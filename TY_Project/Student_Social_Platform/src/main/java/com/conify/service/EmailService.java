@@ -1,38 +1,29 @@
 package com.conify.service;
 
+import com.conify.model.mongo.EmailOutboxMessage;
+import com.conify.repository.mongo.EmailOutboxRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
-import jakarta.mail.internet.MimeMessage;
 
+/**
+ * Renders emails and drops them into the 'email_outbox' collection.
+ * Nothing here talks to SMTP; {@link EmailOutboxDispatcher} sends in the background,
+ * so callers (often inside a SQLite transaction) only pay for one Mongo insert.
+ */
 @Service
 public class EmailService {
 
     @Autowired
-    private JavaMailSender mailSender;
+    private EmailOutboxRepository emailOutboxRepository;
 
-    public boolean sendEmail(String toEmail, String subject, String messageBody) {
-        try {
-            MimeMessage mimeMessage = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
-            
-            String htmlContent = buildEmailTemplate(subject, messageBody);
-            
-            helper.setTo(toEmail);
-            helper.setSubject(subject);
-            helper.setText(htmlContent, true); // true = this is HTML
-            // helper.setFrom("noreply@conify.com"); 
+    // Returns the outbox id; status is available at GET /api/admin/email-outbox/{id}
+    public String queueEmail(String toEmail, String subject, String messageBody) {
+        String htmlContent = buildEmailTemplate(subject, messageBody);
+        EmailOutboxMessage message = emailOutboxRepository.save(
+                new EmailOutboxMessage(toEmail, subject, htmlContent));
 
-            mailSender.send(mimeMessage);
-            
-            System.out.println("✅ HTML Email sent successfully to " + toEmail);
-            return true;
-        } catch (Exception e) {
-            System.err.println("❌ Error sending HTML email to " + toEmail + ": " + e.getMessage());
-            e.printStackTrace();
-            return false;
-        }
+        System.out.println("📨 Email queued for " + toEmail + " (" + message.getId() + ")");
+        return message.getId();
     }
 
     private String buildEmailTemplate(String subject, String messageBody) {
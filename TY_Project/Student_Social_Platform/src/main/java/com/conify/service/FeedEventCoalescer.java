@@ -0,0 +1,89 @@
+package com.conify.service;
+
+import com.conify.dto.PostDelta;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Merges like/comment count changes for /topic/feed per post and sends them as one
+ * POST_DELTAS frame per window (app.feed.events.coalesce-ms):
+ * {type: POST_DELTAS, deltas: [{postId, likeCount?, commentCount?}, ...]}.
+ * Only the latest value per post and counter survives a window. POST_CREATED still
+ * goes out immediately with the full post (see PostService.createPost).
+ */
+@Service
+public class FeedEventCoalescer {
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<String, PostDelta> pending = new ConcurrentHashMap<>();
+
+    private Counter updatesCounter;
+    private Counter framesCounter;
+
+    @PostConstruct
+    public void init() {
+        updatesCounter = Counter.builder("feed.events.updates")
+                .description("Count changes handed to the coalescer")
+                .register(meterRegistry);
+        framesCounter = Counter.builder("feed.events.frames")
+                .description("POST_DELTAS frames sent to /topic/feed")
+                .register(meterRegistry);
+    }
+
+    public void likeCountChanged(String postId, int likeCount) {
+        updatesCounter.increment();
+        pending.compute(postId, (id, delta) -> {
+            if (delta == null) delta = new PostDelta(id);
+            delta.setLikeCount(likeCount);
+            return delta;
+        });
+    }
+
+    public void commentCountChanged(String postId, int commentCount) {
+        updatesCounter.increment();
+        pending.compute(postId, (id, delta) -> {
+            if (delta == null) delta = new PostDelta(id);
+            delta.setCommentCount(commentCount);
+            return delta;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.feed.events.coalesce-ms:250}")
+    public void flush() {
+        if (pending.isEmpty()) return;
+
+        List<PostDelta> deltas = new ArrayList<>(pending.size());
+        for (String postId : pending.keySet()) {
+            // remove() takes the same bin lock as compute(), so a removed delta is never modified again
+            PostDelta delta = pending.remove(postId);
+            if (delta != null) deltas.add(delta);
+        }
+        if (deltas.isEmpty()) return;
+
+        try {
+            messagingTemplate.convertAndSend(
+                    "/topic/feed",
+                    Map.of("type", "POST_DELTAS", "deltas", deltas)
+            );
+            framesCounter.increment();
+        } catch (Exception e) {
+            // Counts are not critical: the next change or a feed reload catches clients up
+            System.err.println("⚠️ Feed delta broadcast failed: " + e.getMessage());
+        }
+    }
+}
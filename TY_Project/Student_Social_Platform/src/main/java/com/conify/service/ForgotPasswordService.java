@@ -7,7 +7,6 @@ import com.conify.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import at.favre.lib.crypto.bcrypt.BCrypt;
 
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
@@ -23,6 +22,9 @@ public class ForgotPasswordService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
     @Transactional
     public void initiateReset(ForgotPasswordDTO dto) throws Exception {
         String email = dto.getEmail().toLowerCase();
@@ -44,7 +46,7 @@ public class ForgotPasswordService {
                          + "</h2>"
                          + "<p style=\"color: #9ca3af; font-size: 14px;\">This code will expire in 15 minutes.</p>";
         
-        emailService.sendEmail(user.getEmail(), emailSubject, emailBody);
+        emailService.queueEmail(user.getEmail(), emailSubject, emailBody);
     }
 
     @Transactional(readOnly = true)
@@ -61,9 +63,10 @@ public class ForgotPasswordService {
         }
     }
 
-    @Transactional
+    // Not @Transactional: lookup and save are separate short transactions so the
+    // BCrypt hash in between does not hold the SQLite connection.
     public void resetPassword(String token, String newPassword) throws Exception {
-        
+
         User user = userRepository.findByResetToken(token)
                 .orElseThrow(() -> new Exception("Invalid or expired reset token."));
 
@@ -71,7 +74,7 @@ public class ForgotPasswordService {
             throw new Exception("Your reset token has expired. Please try again.");
         }
 
-        String newPasswordHash = BCrypt.withDefaults().hashToString(12, newPassword.toCharArray());
+        String newPasswordHash = passwordHashingService.hash(newPassword);
 
         user.setPasswordHash(newPasswordHash);
         user.setResetToken(null);
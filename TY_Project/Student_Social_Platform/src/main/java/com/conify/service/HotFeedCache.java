@@ -0,0 +1,225 @@
+package com.conify.service;
+
+import com.conify.model.mongo.Post;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.UnaryOperator;
+
+/**
+ * Lock-free ring buffer holding the newest N feed posts, so the first feed page
+ * (almost all feed traffic) is served without touching Mongo.
+ *
+ * Writers claim a sequence number and store into slot (seq % N); each slot remembers
+ * its sequence, so readers can tell a live entry from one that was overwritten.
+ * Fed by PostService.createPost, like flushes, media renditions and comment count
+ * updates, i.e. the same events that go to /topic/feed. Rebuilt from Mongo at startup;
+ * posts created while that runs are held back and merged in once it is done.
+ */
+@Service
+public class HotFeedCache {
+
+    private static final Comparator<Post> NEWEST_FIRST =
+            Comparator.comparing(Post::getCreatedAt).thenComparing(Post::getId).reversed();
+
+    @Value("${app.feed.hot-size:200}")
+    private int capacity;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private AtomicReferenceArray<Slot> slots;
+    private final AtomicLong nextSeq = new AtomicLong();
+
+    private volatile boolean ready = false;
+    // Posts published while the startup rebuild runs; merged into the ring when it ends
+    private final ArrayDeque<Post> pending = new ArrayDeque<>();
+    // True once older posts exist outside the ring (evicted, or not loaded at startup)
+    private volatile boolean truncated = false;
+
+    private static final class Slot {
+        final long seq;
+        final Post post;
+
+        Slot(long seq, Post post) {
+            this.seq = seq;
+            this.post = post;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        try {
+            Query newest = new Query()
+                    .with(Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "_id")))
+                    .limit(capacity);
+            List<Post> posts = mongoTemplate.find(newest, Post.class);
+
+            // Oldest first, so the newest post ends up with the highest sequence
+            Collections.reverse(posts);
+            for (Post post : posts) store(post);
+
+            synchronized (pending) {
+                // Live posts created during the load: drop the ones the query already
+                // returned and append the rest after them in feed order
+                Set<String> loaded = new HashSet<>();
+                for (Post post : posts) loaded.add(post.getId());
+                List<Post> live = new ArrayList<>(pending);
+                live.sort(NEWEST_FIRST.reversed());
+                for (Post post : live) {
+                    if (!loaded.contains(post.getId())) store(post);
+                }
+                pending.clear();
+
+                if (posts.size() >= capacity) truncated = true;
+                ready = true;
+            }
+            System.out.println("✅ Hot feed cache loaded " + posts.size() + " posts");
+        } catch (Exception e) {
+            // Stay not-ready: the feed keeps reading from Mongo
+            System.err.println("⚠️ Hot feed cache rebuild failed: " + e.getMessage());
+        }
+    }
+
+    /* =======================
+       WRITES (from feed events)
+       ======================= */
+
+    public void publish(Post post) {
+        if (!ready) {
+            synchronized (pending) {
+                if (!ready) {
+                    // Only the newest 'capacity' posts can ever be in the ring
+                    pending.addLast(post);
+                    if (pending.size() > capacity) pending.pollFirst();
+                    return;
+                }
+            }
+        }
+        store(post);
+    }
+
+    private void store(Post post) {
+        long seq = nextSeq.getAndIncrement();
+        if (seq >= capacity) truncated = true;
+        slots.set(index(seq), new Slot(seq, post));
+    }
+
+    public void updateLikeCount(String postId, int likeCount) {
+        replace(postId, cached -> {
+            Post copy = copyOf(cached);
+            copy.setLikeCount(likeCount);
+            return copy;
+        });
+    }
+
+    public void updateMedia(String postId, String mediaUrl, String thumbnailUrl) {
+        replace(postId, cached -> {
+            Post copy = copyOf(cached);
+            copy.setMediaUrl(mediaUrl);
+            copy.setThumbnailUrl(thumbnailUrl);
+            return copy;
+        });
+    }
+
+    public void updateCommentCount(String postId, int commentCount) {
+        replace(postId, cached -> {
+            Post copy = copyOf(cached);
+            copy.setCommentCount(commentCount);
+            return copy;
+        });
+    }
+
+    /* =======================
+       READS
+       ======================= */
+
+    /**
+     * First {@code limit} posts, newest first, plus one extra if more exist (the
+     * caller uses it to decide hasMore). Returns null when the cache cannot answer.
+     */
+    public List<Post> firstPage(int limit) {
+        if (!ready || limit >= capacity) return null;
+
+        List<Post> posts = snapshot();
+        posts.sort(NEWEST_FIRST);
+
+        if (posts.size() > limit) return new ArrayList<>(posts.subList(0, limit + 1));
+        // Everything we have fits on the page; only complete if nothing older exists
+        return truncated ? null : posts;
+    }
+
+    /* =======================
+       HELPERS
+       ======================= */
+
+    private List<Post> snapshot() {
+        long head = nextSeq.get();
+        long from = Math.max(0, head - capacity);
+        List<Post> posts = new ArrayList<>((int) (head - from));
+        for (long seq = head - 1; seq >= from; seq--) {
+            Slot slot = slots.get(index(seq));
+            // Skip slots not yet written for this seq or already overwritten by a newer one
+            if (slot != null && slot.seq == seq) posts.add(slot.post);
+        }
+        return posts;
+    }
+
+    private void replace(String postId, UnaryOperator<Post> change) {
+        if (postId == null) return;
+        for (int i = 0; i < capacity; i++) {
+            Slot slot = slots.get(i);
+            if (slot == null || !postId.equals(slot.post.getId())) continue;
+
+            // CAS loop: retry if a concurrent update replaced the slot first,
+            // stop if the post was evicted meanwhile
+            while (!slots.compareAndSet(i, slot, new Slot(slot.seq, change.apply(slot.post)))) {
+                slot = slots.get(i);
+                if (slot == null || !postId.equals(slot.post.getId())) return;
+            }
+            return;
+        }
+    }
+
+    private int index(long seq) {
+        return (int) (seq % capacity);
+    }
+
+    private static Post copyOf(Post p) {
+        Post c = new Post();
+        c.setId(p.getId());
+        c.setUserId(p.getUserId());
+        c.setAuthorSnapshot(p.getAuthorSnapshot());
+        c.setContent(p.getContent());
+        c.setMediaUrl(p.getMediaUrl());
+        c.setThumbnailUrl(p.getThumbnailUrl());
+        c.setOriginalUrl(p.getOriginalUrl());
+        c.setMediaType(p.getMediaType());
+        c.setCreatedAt(p.getCreatedAt());
+        c.setLikeCount(p.getLikeCount());
+        c.setCommentCount(p.getCommentCount());
+        c.setCommunityId(p.getCommunityId());
+        return c;
+    }
+}
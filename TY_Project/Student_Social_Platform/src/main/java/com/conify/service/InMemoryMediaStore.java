@@ -0,0 +1,112 @@
+package com.conify.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link MediaStore} kept in a map, for tests and throwaway instances
+ * (app.media.store=memory). Nothing touches the disk.
+ */
+@Service
+@ConditionalOnProperty(name = "app.media.store", havingValue = "memory")
+public class InMemoryMediaStore implements MediaStore {
+
+    private record Blob(byte[] bytes, Instant lastModified) {}
+
+    private final Map<String, Blob> blobs = new ConcurrentHashMap<>();
+
+    /* =======================
+       UPLOADS
+       ======================= */
+
+    @Override
+    public Staged stage(InputStream in) throws IOException {
+        try (DigestInputStream digesting = new DigestInputStream(in, sha256())) {
+            byte[] bytes = digesting.readAllBytes();
+            String hash = HexFormat.of().formatHex(digesting.getMessageDigest().digest());
+            return new Staged(hash, bytes.length, bytes);
+        }
+    }
+
+    @Override
+    public InputStream openStaged(Staged staged) {
+        return new ByteArrayInputStream((byte[]) staged.handle());
+    }
+
+    @Override
+    public boolean commit(Staged staged, String key) {
+        return blobs.putIfAbsent(key, new Blob((byte[]) staged.handle(), Instant.now())) == null;
+    }
+
+    @Override
+    public void discard(Staged staged) {
+        // garbage collected
+    }
+
+    /* =======================
+       OBJECTS
+       ======================= */
+
+    @Override
+    public void write(String key, byte[] bytes) {
+        blobs.put(key, new Blob(bytes.clone(), Instant.now()));
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return new ByteArrayInputStream(get(key).bytes());
+    }
+
+    @Override
+    public Stat stat(String key) {
+        Blob blob = blobs.get(key);
+        return blob == null ? null : new Stat(blob.bytes().length, blob.lastModified());
+    }
+
+    @Override
+    public long transferTo(String key, long position, long count, WritableByteChannel target) throws IOException {
+        byte[] bytes = get(key).bytes();
+        int from = (int) Math.min(position, bytes.length);
+        int length = (int) Math.min(count, bytes.length - from);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, from, length);
+        while (buffer.hasRemaining()) target.write(buffer);
+        return length;
+    }
+
+    @Override
+    public void deleteByPrefix(String keyPrefix) {
+        blobs.keySet().removeIf(key -> key.startsWith(keyPrefix) && key.indexOf('/', keyPrefix.length()) < 0);
+    }
+
+    /* =======================
+       HELPERS
+       ======================= */
+
+    private Blob get(String key) throws NoSuchFileException {
+        Blob blob = blobs.get(key);
+        if (blob == null) throw new NoSuchFileException(key);
+        return blob;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,18 +1,24 @@
 package com.conify.service; // <-- FIXED: This is the correct package
 
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.Claims; // <-- FIXED: Added missing import
-import io.jsonwebtoken.Jws; // <-- FIXED: Added missing import
+import com.conify.dto.AuthenticatedUser;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class JwtUtil {
@@ -20,11 +26,34 @@ public class JwtUtil {
     @Value("${jwt.secret}")
     private String secretString;
 
+    // Upper bound on remembered tokens (one per active browser session)
+    @Value("${jwt.cache.max-entries:10000}")
+    private int maxCachedTokens;
+
     private SecretKey secretKey;
 
+    // Immutable and thread-safe once built, so it is shared by all requests
+    private JwtParser parser;
+
+    // SHA-256(token) -> claims that already passed signature verification
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+    private static final class VerifiedToken {
+        final Claims claims;
+        final long expiresAtMillis;
+
+        VerifiedToken(Claims claims, long expiresAtMillis) {
+            this.claims = claims;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
     @jakarta.annotation.PostConstruct
     public void init() {
         this.secretKey = Keys.hmacShaKeyFor(secretString.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .build();
     }
 
     private final long expirationTime = 86400000; // 24h in ms
@@ -32,22 +61,45 @@ public class JwtUtil {
     public String generateToken(Long userId, String username) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
-        
+
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(username)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expirationTime))
-                .signWith(secretKey, SignatureAlgorithm.HS512) 
+                .signWith(secretKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
-    // --- Method to get data from Token ---
-    private Jws<Claims> getClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token);
+    // --- Method to get data from Token (verified once, then served from cache until exp) ---
+    Claims getClaims(String token) {
+        String key = cacheKey(token);
+        long now = System.currentTimeMillis();
+
+        VerifiedToken cached = verifiedTokens.get(key);
+        if (cached != null) {
+            if (cached.expiresAtMillis > now) {
+                return cached.claims;
+            }
+            verifiedTokens.remove(key, cached);
+        }
+
+        Claims claims = parseAndVerify(token);
+
+        // Tokens without exp are never cached; they must be re-verified every time
+        Date exp = claims.getExpiration();
+        if (exp != null && exp.getTime() > now) {
+            if (verifiedTokens.size() >= maxCachedTokens) {
+                evict(now);
+            }
+            verifiedTokens.put(key, new VerifiedToken(claims, exp.getTime()));
+        }
+        return claims;
+    }
+
+    // --- Full HS512 signature check + parse, no cache ---
+    Claims parseAndVerify(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
     // --- Method to validate the token ---
@@ -62,6 +114,48 @@ public class JwtUtil {
 
     // --- Method to get Username from Token ---
     public String getUsernameFromToken(String token) {
-        return getClaims(token).getBody().getSubject();
+        return getClaims(token).getSubject();
+    }
+
+    // --- Single verification: identity straight from the claims, null if invalid ---
+    public AuthenticatedUser getAuthenticatedUser(String token) {
+        if (token == null || token.isBlank()) return null;
+        try {
+            Claims claims = getClaims(token);
+            Long userId = claims.get("userId", Long.class);
+            String username = claims.getSubject();
+            if (userId == null || username == null) return null;
+            return new AuthenticatedUser(userId, username);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /* =======================
+       CACHE HELPERS
+       ======================= */
+
+    private void evict(long now) {
+        // 1. Drop everything that already expired
+        verifiedTokens.values().removeIf(v -> v.expiresAtMillis <= now);
+
+        // 2. Still full: drop arbitrary entries until there is 10% headroom
+        int target = Math.max(0, maxCachedTokens - Math.max(1, maxCachedTokens / 10));
+        Iterator<String> it = verifiedTokens.keySet().iterator();
+        while (verifiedTokens.size() > target && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    // The raw token is never kept in memory as a key
+    private static String cacheKey(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
-}
\ No newline at end of file
+}
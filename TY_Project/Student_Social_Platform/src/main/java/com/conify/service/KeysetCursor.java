@@ -0,0 +1,63 @@
+package com.conify.service;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.time.Instant;
+
+/**
+ * Opaque keyset cursor "epochMillis_objectId" for lists sorted by (time, _id).
+ * Millisecond precision matches what Mongo stores for Instant fields.
+ */
+final class KeysetCursor {
+
+    final Instant time;
+    final ObjectId id;
+
+    private KeysetCursor(Instant time, ObjectId id) {
+        this.time = time;
+        this.id = id;
+    }
+
+    static KeysetCursor at(Instant time, String id) {
+        return new KeysetCursor(time, new ObjectId(id));
+    }
+
+    static String of(Instant time, String id) {
+        return time.toEpochMilli() + "_" + id;
+    }
+
+    static KeysetCursor parse(String cursor) {
+        int sep = cursor.indexOf('_');
+        if (sep <= 0) throw new IllegalArgumentException("Invalid cursor");
+        String id = cursor.substring(sep + 1);
+        if (!ObjectId.isValid(id)) throw new IllegalArgumentException("Invalid cursor");
+        try {
+            long millis = Long.parseLong(cursor.substring(0, sep));
+            return new KeysetCursor(Instant.ofEpochMilli(millis), new ObjectId(id));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    // Rows after this cursor in a (timeField DESC, _id DESC) listing
+    Criteria olderThan(String timeField) {
+        return new Criteria().orOperator(
+                Criteria.where(timeField).lt(time),
+                Criteria.where(timeField).is(time).and("_id").lt(id));
+    }
+
+    // This row and everything before it in a (timeField ASC, _id ASC) listing
+    Criteria notNewerThan(String timeField) {
+        return new Criteria().orOperator(
+                Criteria.where(timeField).lt(time),
+                Criteria.where(timeField).is(time).and("_id").lte(id));
+    }
+
+    // Rows after this cursor in a (timeField ASC, _id ASC) listing
+    Criteria newerThan(String timeField) {
+        return new Criteria().orOperator(
+                Criteria.where(timeField).gt(time),
+                Criteria.where(timeField).is(time).and("_id").gt(id));
+    }
+}
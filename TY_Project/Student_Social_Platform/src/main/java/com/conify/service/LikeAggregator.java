@@ -0,0 +1,416 @@
+package com.conify.service;
+
+import com.conify.dto.LikeToggleResult;
+import com.conify.model.mongo.CommunityMessage;
+import com.conify.model.mongo.Notification;
+import com.conify.model.mongo.Post;
+import com.conify.model.mongo.PostLike;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Write-behind buffer for like/unlike toggles on feed posts and community messages.
+ *
+ * A toggle only updates memory (plus one indexed membership lookup the first time a
+ * user touches a target) and answers with the new count straight away. Buffered
+ * changes are written every app.likes.flush-ms, or as soon as app.likes.flush-threshold
+ * toggles are waiting, as one bulk write per collection, followed by one count
+ * update per changed target (feed posts via FeedEventCoalescer). Everything still buffered is written on shutdown.
+ *
+ * All like changes go through here, so the buffered count stays authoritative and is
+ * never re-read from Mongo after a flush.
+ */
+@Service
+public class LikeAggregator {
+
+    public enum Target { POST, COMMUNITY_MESSAGE }
+
+    @Value("${app.likes.flush-threshold:500}")
+    private int flushThreshold;
+
+    @Value("${app.likes.idle-evict-ms:60000}")
+    private long idleEvictMs;
+
+    @Autowired private MongoTemplate mongoTemplate;
+    @Autowired private NotificationService notificationService;
+    @Autowired private SimpMessagingTemplate messagingTemplate;
+    @Autowired private HotFeedCache hotFeedCache;
+    @Autowired private FeedEventCoalescer feedEventCoalescer;
+    @Autowired private MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingToggles = new AtomicInteger();
+    private final AtomicBoolean thresholdFlushQueued = new AtomicBoolean();
+    private final Object flushLock = new Object();
+
+    private ExecutorService thresholdFlusher;
+
+    private Counter toggleCounter;
+    private Counter writeCounter;
+    private Timer flushTimer;
+
+    private record Key(Target target, String id) {}
+
+    // Per-target state, guarded by its own monitor
+    private static final class Entry {
+        final Long ownerId;        // post author, for like notifications
+        final String communityId;  // community topic, for message broadcasts
+
+        int count;                 // stored count + everything buffered since
+        int unflushedDelta;
+        Map<Long, Boolean> pending = new HashMap<>();   // userId -> liked, not yet written
+        Map<Long, Boolean> inFlight = Map.of();         // being written by the running flush
+        long flushGeneration;
+        long lastTouched = System.currentTimeMillis();
+        boolean evicted;
+
+        Entry(int count, Long ownerId, String communityId) {
+            this.count = count;
+            this.ownerId = ownerId;
+            this.communityId = communityId;
+        }
+
+        Boolean bufferedState(Long userId) {
+            Boolean state = pending.get(userId);
+            return state != null ? state : inFlight.get(userId);
+        }
+    }
+
+    // What one flush took out of an entry
+    private record Drained(Key key, Entry entry, Map<Long, Boolean> intents, int delta) {}
+
+    @PostConstruct
+    public void init() {
+        thresholdFlusher = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "like-flush");
+            t.setDaemon(true);
+            return t;
+        });
+
+        toggleCounter = Counter.builder("likes.toggles")
+                .description("Like/unlike clicks accepted into the buffer")
+                .register(meterRegistry);
+        writeCounter = Counter.builder("likes.flush.writes")
+                .description("Bulk write operations issued for buffered likes")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("likes.flush")
+                .register(meterRegistry);
+        Gauge.builder("likes.pending", pendingToggles, AtomicInteger::get)
+                .description("Toggles waiting for the next flush")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        thresholdFlusher.shutdown();
+        thresholdFlusher.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+        if (pendingToggles.get() > 0) {
+            System.err.println("⚠️ " + pendingToggles.get() + " like toggles could not be written on shutdown");
+        }
+    }
+
+    /* =======================
+       TOGGLE (request thread)
+       ======================= */
+
+    public LikeToggleResult toggle(Target target, String id, Long userId) {
+        Key key = new Key(target, id);
+
+        while (true) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                Entry loaded = load(key);
+                entry = entries.putIfAbsent(key, loaded);
+                if (entry == null) entry = loaded;
+            }
+
+            Boolean current;
+            long generation;
+            synchronized (entry) {
+                if (entry.evicted) continue;
+                current = entry.bufferedState(userId);
+                generation = entry.flushGeneration;
+            }
+
+            // Unknown to the buffer: ask the store, outside the lock so other users are not held up
+            Boolean stored = current == null ? isStoredLiked(key, userId) : null;
+
+            boolean liked;
+            boolean newIntent;
+            int count;
+            synchronized (entry) {
+                if (entry.evicted) continue;
+                current = entry.bufferedState(userId);
+                if (current == null) {
+                    // A flush finished while we were reading: our answer may predate it
+                    if (entry.flushGeneration != generation) continue;
+                    current = stored;
+                }
+
+                liked = !current;
+                newIntent = entry.pending.put(userId, liked) == null;
+                entry.count += liked ? 1 : -1;
+                entry.unflushedDelta += liked ? 1 : -1;
+                entry.lastTouched = System.currentTimeMillis();
+                count = entry.count;
+            }
+
+            toggleCounter.increment();
+            if (liked && target == Target.POST && entry.ownerId != null) {
+                notificationService.createNotification(
+                        userId,
+                        entry.ownerId,
+                        Notification.NotificationType.POST_LIKE,
+                        "liked your post",
+                        id,
+                        null
+                );
+            }
+            if (newIntent && pendingToggles.incrementAndGet() >= flushThreshold) requestFlush();
+
+            return new LikeToggleResult(id, count, liked);
+        }
+    }
+
+    /* =======================
+       FLUSH
+       ======================= */
+
+    @Scheduled(fixedDelayString = "${app.likes.flush-ms:300}")
+    public void flush() {
+        synchronized (flushLock) {
+            List<Drained> batch = drain();
+            if (!batch.isEmpty()) {
+                Timer.Sample sample = Timer.start(meterRegistry);
+                boolean written = write(batch);
+                complete(batch, written);
+                sample.stop(flushTimer);
+            }
+            evictIdle();
+        }
+    }
+
+    private void requestFlush() {
+        if (!thresholdFlushQueued.compareAndSet(false, true)) return;
+        try {
+            thresholdFlusher.execute(() -> {
+                try {
+                    flush();
+                } finally {
+                    thresholdFlushQueued.set(false);
+                }
+            });
+        } catch (Exception e) {
+            // Shutting down: the final flush picks it up
+            thresholdFlushQueued.set(false);
+        }
+    }
+
+    private List<Drained> drain() {
+        List<Drained> batch = new ArrayList<>();
+        for (Map.Entry<Key, Entry> e : entries.entrySet()) {
+            Entry entry = e.getValue();
+            synchronized (entry) {
+                if (entry.pending.isEmpty()) continue;
+                batch.add(new Drained(e.getKey(), entry, entry.pending, entry.unflushedDelta));
+                entry.inFlight = entry.pending;
+                entry.pending = new HashMap<>();
+                entry.unflushedDelta = 0;
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Membership writes are idempotent (upsert/remove, $addToSet/$pullAll) and are
+     * retried on failure. Post counts are $inc and are not: if that step fails the
+     * affected posts are recounted from post_likes instead.
+     */
+    private boolean write(List<Drained> batch) {
+        BulkOperations postLikes = null;
+        BulkOperations messages = null;
+        BulkOperations postCounts = null;
+        Instant now = Instant.now();
+
+        for (Drained d : batch) {
+            String id = d.key().id();
+            if (d.key().target() == Target.POST) {
+                if (postLikes == null) postLikes = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PostLike.class);
+                for (Map.Entry<Long, Boolean> intent : d.intents().entrySet()) {
+                    Query like = new Query(Criteria.where("postId").is(id).and("userId").is(intent.getKey()));
+                    if (intent.getValue()) {
+                        postLikes.upsert(like, new Update().setOnInsert("createdAt", now));
+                    } else {
+                        postLikes.remove(like);
+                    }
+                    writeCounter.increment();
+                }
+                if (d.delta() != 0) {
+                    if (postCounts == null) postCounts = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class);
+                    postCounts.updateOne(new Query(Criteria.where("_id").is(id)), new Update().inc("likeCount", d.delta()));
+                    writeCounter.increment();
+                }
+            } else {
+                if (messages == null) messages = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CommunityMessage.class);
+                List<Long> likers = new ArrayList<>();
+                List<Long> unlikers = new ArrayList<>();
+                d.intents().forEach((userId, liked) -> (liked ? likers : unlikers).add(userId));
+
+                Query byId = new Query(Criteria.where("_id").is(id));
+                if (!likers.isEmpty()) {
+                    messages.updateOne(byId, new Update().addToSet("likes").each(likers.toArray()));
+                    writeCounter.increment();
+                }
+                if (!unlikers.isEmpty()) {
+                    messages.updateOne(byId, new Update().pullAll("likes", unlikers.toArray()));
+                    writeCounter.increment();
+                }
+            }
+        }
+
+        try {
+            if (postLikes != null) postLikes.execute();
+            if (messages != null) messages.execute();
+        } catch (Exception e) {
+            System.err.println("⚠️ Like flush failed, retrying next round: " + e.getMessage());
+            return false;
+        }
+
+        if (postCounts != null) {
+            try {
+                postCounts.execute();
+            } catch (Exception e) {
+                System.err.println("⚠️ Like count update failed, recounting: " + e.getMessage());
+                recountPosts(batch);
+            }
+        }
+        return true;
+    }
+
+    private void complete(List<Drained> batch, boolean written) {
+        int settled = 0; // intents no longer waiting: written, or merged into a newer toggle
+        for (Drained d : batch) {
+            Entry entry = d.entry();
+            int count;
+            synchronized (entry) {
+                if (written) {
+                    settled += d.intents().size();
+                } else {
+                    // Put the intents back; anything toggled since is newer and wins
+                    for (Map.Entry<Long, Boolean> intent : d.intents().entrySet()) {
+                        if (entry.pending.putIfAbsent(intent.getKey(), intent.getValue()) != null) settled++;
+                    }
+                    entry.unflushedDelta += d.delta();
+                }
+                entry.inFlight = Map.of();
+                entry.flushGeneration++;
+                count = entry.count;
+            }
+            if (written) publish(d.key(), entry, count);
+        }
+        pendingToggles.addAndGet(-settled);
+    }
+
+    // Counts are only broadcast once they are in Mongo, one event per target per flush
+    private void publish(Key key, Entry entry, int likeCount) {
+        try {
+            if (key.target() == Target.POST) {
+                hotFeedCache.updateLikeCount(key.id(), likeCount);
+                feedEventCoalescer.likeCountChanged(key.id(), likeCount);
+            } else if (entry.communityId != null) {
+                messagingTemplate.convertAndSend(
+                        "/topic/community/" + entry.communityId,
+                        Map.of("type", "POST_LIKED", "postId", key.id(), "likeCount", likeCount)
+                );
+            }
+        } catch (Exception e) {
+            System.err.println("⚠️ Like broadcast failed for " + key.id() + ": " + e.getMessage());
+        }
+    }
+
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleEvictMs;
+        for (Map.Entry<Key, Entry> e : entries.entrySet()) {
+            Entry entry = e.getValue();
+            synchronized (entry) {
+                if (entry.lastTouched > cutoff || !entry.pending.isEmpty() || !entry.inFlight.isEmpty()) continue;
+                entry.evicted = true;
+                entries.remove(e.getKey(), entry);
+            }
+        }
+    }
+
+    /* =======================
+       STORE ACCESS
+       ======================= */
+
+    private Entry load(Key key) {
+        Query byId = new Query(Criteria.where("_id").is(key.id()));
+        if (key.target() == Target.POST) {
+            byId.fields().include("userId").include("likeCount");
+            Post post = mongoTemplate.findOne(byId, Post.class);
+            if (post == null) throw new RuntimeException("Post not found");
+            return new Entry(post.getLikeCount(), post.getUserId(), null);
+        }
+
+        byId.fields().include("communityId").include("likes");
+        CommunityMessage msg = mongoTemplate.findOne(byId, CommunityMessage.class);
+        if (msg == null) throw new RuntimeException("Message not found");
+        int count = msg.getLikes() == null ? 0 : msg.getLikes().size();
+        return new Entry(count, null, msg.getCommunityId());
+    }
+
+    private boolean isStoredLiked(Key key, Long userId) {
+        if (key.target() == Target.POST) {
+            return mongoTemplate.exists(
+                    new Query(Criteria.where("postId").is(key.id()).and("userId").is(userId)), PostLike.class);
+        }
+        return mongoTemplate.exists(
+                new Query(Criteria.where("_id").is(key.id()).and("likes").is(userId)), CommunityMessage.class);
+    }
+
+    private void recountPosts(List<Drained> batch) {
+        for (Drained d : batch) {
+            if (d.key().target() != Target.POST || d.delta() == 0) continue;
+            try {
+                String id = d.key().id();
+                int stored = (int) mongoTemplate.count(new Query(Criteria.where("postId").is(id)), PostLike.class);
+                mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(id)),
+                        new Update().set("likeCount", stored), Post.class);
+                synchronized (d.entry()) {
+                    // Stored membership plus whatever was toggled after this flush drained
+                    d.entry().count = stored + d.entry().unflushedDelta;
+                }
+            } catch (Exception e) {
+                System.err.println("⚠️ Recount failed for post " + d.key().id() + ": " + e.getMessage());
+            }
+        }
+    }
+}
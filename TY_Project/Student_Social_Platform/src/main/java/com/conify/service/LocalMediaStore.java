@@ -0,0 +1,198 @@
+package com.conify.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * {@link MediaStore} on the local filesystem under app.upload.dir.
+ * Uploads are copied channel-to-channel through one direct buffer per request
+ * (hashed as they pass) into .staging/, then renamed into place.
+ */
+@Service
+@ConditionalOnProperty(name = "app.media.store", havingValue = "local", matchIfMissing = true)
+public class LocalMediaStore implements MediaStore {
+
+    private static final String STAGING_DIR = ".staging";
+
+    @Value("${app.upload.dir:uploads/}")
+    private String uploadDir;
+
+    @Value("${app.media.store.buffer-bytes:65536}")
+    private int bufferBytes;
+
+    private Path root;
+    private Path staging;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        staging = root.resolve(STAGING_DIR);
+        Files.createDirectories(staging);
+        System.out.println("📂 Media store: /uploads/** -> " + root);
+    }
+
+    /* =======================
+       UPLOADS
+       ======================= */
+
+    @Override
+    public Staged stage(InputStream in) throws IOException {
+        Path tmp = Files.createTempFile(staging, "upload-", ".part");
+        MessageDigest digest = sha256();
+        long size = 0;
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferBytes);
+        try (ReadableByteChannel source = Channels.newChannel(in);
+             FileChannel target = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            while (source.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer.duplicate());
+                while (buffer.hasRemaining()) size += target.write(buffer);
+                buffer.clear();
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        return new Staged(HexFormat.of().formatHex(digest.digest()), size, tmp);
+    }
+
+    @Override
+    public InputStream openStaged(Staged staged) throws IOException {
+        return Files.newInputStream((Path) staged.handle());
+    }
+
+    @Override
+    public boolean commit(Staged staged, String key) throws IOException {
+        Path source = (Path) staged.handle();
+        Path target = resolve(key);
+        try {
+            if (Files.exists(target)) return false;
+            Files.createDirectories(target.getParent());
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            return false;
+        } finally {
+            Files.deleteIfExists(source);
+        }
+    }
+
+    @Override
+    public void discard(Staged staged) {
+        try {
+            Files.deleteIfExists((Path) staged.handle());
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not delete staged upload: " + e.getMessage());
+        }
+    }
+
+    /* =======================
+       OBJECTS
+       ======================= */
+
+    @Override
+    public void write(String key, byte[] bytes) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        // Written aside and renamed: readers never see a half-written file
+        Path tmp = Files.createTempFile(staging, "write-", ".part");
+        try {
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining()) out.write(buffer);
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return Files.newInputStream(resolve(key));
+    }
+
+    @Override
+    public Stat stat(String key) throws IOException {
+        Path file = resolve(key);
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            return attrs.isRegularFile() ? new Stat(attrs.size(), attrs.lastModifiedTime().toInstant()) : null;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public long transferTo(String key, long position, long count, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(resolve(key), StandardOpenOption.READ)) {
+            long sent = 0;
+            while (sent < count) {
+                long n = channel.transferTo(position + sent, count - sent, target);
+                if (n <= 0) break;
+                sent += n;
+            }
+            return sent;
+        }
+    }
+
+    @Override
+    public void deleteByPrefix(String keyPrefix) throws IOException {
+        Path prefix = resolve(keyPrefix);
+        String name = prefix.getFileName().toString();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(prefix.getParent(), name + "*")) {
+            for (Path file : files) Files.deleteIfExists(file);
+        } catch (NoSuchFileException e) {
+            // already gone
+        }
+    }
+
+    @Override
+    public Path localFile(String key) {
+        return resolve(key);
+    }
+
+    /* =======================
+       HELPERS
+       ======================= */
+
+    // Keys are validated by MediaBlobStore; this is the last line against escaping the root
+    private Path resolve(String key) {
+        Path file = root.resolve(key).normalize();
+        if (!file.startsWith(root) || file.startsWith(staging)) {
+            throw new IllegalArgumentException("Invalid media key");
+        }
+        return file;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -7,7 +7,6 @@ import com.conify.model.mongo.UserSession;
 import com.conify.repository.UserRepository;
 import com.conify.repository.mongo.UserProfileRepository;
 import com.conify.repository.mongo.UserSessionRepository;
-import at.favre.lib.crypto.bcrypt.BCrypt;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -18,7 +17,9 @@ import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.Instant;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.springframework.dao.CannotAcquireLockException;
 import org.springframework.retry.annotation.Backoff;
@@ -33,6 +34,9 @@ public class LoginService {
     @Autowired private UserSessionRepository userSessionRepository;
     @Autowired private JwtUtil jwtUtil;
     @Autowired private EmailService emailService;
+    @Autowired private PasswordHashingService passwordHashingService;
+    @Autowired private LoginSideEffectPipeline loginSideEffects;
+    @Autowired private AvatarService avatarService;
 
     /* =======================
        EXCEPTIONS
@@ -54,12 +58,13 @@ public class LoginService {
        LOGIN
        ======================= */
 
+    // Not @Transactional on purpose: the lookup and the final save each run in their
+    // own short transaction, and the BCrypt check in between holds no connection.
     @Retryable(
         retryFor = CannotAcquireLockException.class,
         maxAttempts = 3,
         backoff = @Backoff(delay = 1000)
     )
-    @Transactional
     public Map<String, String> loginUser(LoginDTO loginDTO, String ipAddress)
             throws InvalidCredentialsException, NotVerifiedException, BadRequestException {
 
@@ -90,10 +95,9 @@ public class LoginService {
 
         User user = userOpt.get();
 
-        BCrypt.Result result =
-                BCrypt.verifyer().verify(password.toCharArray(), user.getPasswordHash());
+        boolean verified = passwordHashingService.verify(password, user.getPasswordHash());
 
-        if (!result.verified) {
+        if (!verified) {
             throw new InvalidCredentialsException("Invalid username or password.");
         }
 
@@ -101,17 +105,34 @@ public class LoginService {
             throw new NotVerifiedException("Account not verified.");
         }
 
-        syncUserProfileToMongo(user);
-        recordLoginSession(user, ipAddress);
-
-        LocalDateTime now = LocalDateTime.now();
-        if (user.getLastLoginAt() == null) {
-            sendWelcomeEmail(user, now);
+        // Everything below the credential check runs on the per-user pipeline,
+        // so the response never waits on Mongo, SMTP or another SQLite write.
+        Instant loginAt = Instant.now();
+        boolean maybeFirstLogin = user.getLastLoginAt() == null;
+        Long userId = user.getId();
+
+        loginSideEffects.submit(userId, "profile-sync", () -> syncUserProfileToMongo(user, loginAt));
+        loginSideEffects.submit(userId, "session", () -> recordLoginSession(user, ipAddress, loginAt));
+        if (maybeFirstLogin) {
+            // Two simultaneous first logins both read NULL; only the one whose
+            // conditional update flips it sends the welcome email
+            AtomicBoolean claimed = new AtomicBoolean();
+            loginSideEffects.submit(userId, "last-login", () -> {
+                Timestamp at = Timestamp.from(loginAt);
+                if (userRepository.markFirstLogin(userId, at) == 1) {
+                    claimed.set(true);
+                } else {
+                    userRepository.updateLastLoginAt(userId, at);
+                }
+            });
+            loginSideEffects.submit(userId, "welcome-email", () -> {
+                if (claimed.get()) sendWelcomeEmail(user, loginAt);
+            });
+        } else {
+            loginSideEffects.submit(userId, "last-login",
+                    () -> userRepository.updateLastLoginAt(userId, Timestamp.from(loginAt)));
         }
 
-        user.setLastLoginAt(Timestamp.valueOf(now));
-        userRepository.save(user);
-
         String token = jwtUtil.generateToken(user.getId(), user.getUsername());
 
         Map<String, String> response = new HashMap<>();
@@ -149,64 +170,57 @@ public class LoginService {
        HELPERS
        ======================= */
 
-    private void syncUserProfileToMongo(User sqlUser) {
-        try {
-            UserProfile profile = userProfileRepository
-                    .findByUserId(sqlUser.getId())
-                    .orElseGet(() -> {
-                        UserProfile p = new UserProfile(sqlUser.getId());
-                        p.setJoinedAt(Instant.now());
-                        p.setAvatarUrl(
-                                "https://ui-avatars.com/api/?name=" +
-                                sqlUser.getUsername() + "&background=random"
-                        );
-                        return p;
-                    });
-
-            profile.setUsername("@" + sqlUser.getUsername());
-            profile.setEmail(sqlUser.getEmail());
-            profile.setSchoolName(sqlUser.getSchoolName());
-            profile.setBirthday(sqlUser.getBirthday());
-            profile.setLastActive(Instant.now());
-
-            if (sqlUser.getAccountExpireDate() != null) {
-                profile.setAccountExpireDate(
-                        sqlUser.getAccountExpireDate().toInstant()
-                );
-            }
-
-            userProfileRepository.save(profile);
-        } catch (Exception e) {
-            System.err.println("⚠️ Mongo sync failed: " + e.getMessage());
+    // Helpers throw on failure so the pipeline can retry them
+
+    private void syncUserProfileToMongo(User sqlUser, Instant loginAt) {
+        UserProfile profile = userProfileRepository
+                .findByUserId(sqlUser.getId())
+                .orElseGet(() -> {
+                    UserProfile p = new UserProfile(sqlUser.getId());
+                    p.setJoinedAt(loginAt);
+                    p.setAvatarUrl(avatarService.defaultUrl(sqlUser.getUsername()));
+                    return p;
+                });
+
+        profile.setUsername("@" + sqlUser.getUsername());
+        profile.setEmail(sqlUser.getEmail());
+        profile.setSchoolName(sqlUser.getSchoolName());
+        profile.setBirthday(sqlUser.getBirthday());
+        profile.setLastActive(loginAt);
+        // Older profiles still point at the external avatar service
+        if (avatarService.isLegacyDefault(profile.getAvatarUrl())) {
+            profile.setAvatarUrl(avatarService.defaultUrl(sqlUser.getUsername()));
         }
-    }
 
-    private void recordLoginSession(User user, String ipAddress) {
-        try {
-            userSessionRepository.save(
-                    new UserSession(
-                            user.getId(),
-                            user.getUsername(),
-                            ipAddress,
-                            Instant.now()
-                    )
+        if (sqlUser.getAccountExpireDate() != null) {
+            profile.setAccountExpireDate(
+                    sqlUser.getAccountExpireDate().toInstant()
             );
-        } catch (Exception e) {
-            e.printStackTrace();
         }
+
+        userProfileRepository.save(profile);
     }
 
-    private void sendWelcomeEmail(User user, LocalDateTime time) {
-        try {
-            String formatted =
-                    time.format(DateTimeFormatter.ofPattern("MMM dd, yyyy 'at' hh:mm a"));
+    private void recordLoginSession(User user, String ipAddress, Instant loginAt) {
+        userSessionRepository.save(
+                new UserSession(
+                        user.getId(),
+                        user.getUsername(),
+                        ipAddress,
+                        loginAt
+                )
+        );
+    }
+
+    private void sendWelcomeEmail(User user, Instant loginAt) {
+        String formatted = LocalDateTime.ofInstant(loginAt, ZoneId.systemDefault())
+                .format(DateTimeFormatter.ofPattern("MMM dd, yyyy 'at' hh:mm a"));
 
-            String body =
-                    "<p>Hi " + user.getUsername() + ",</p>" +
-                    "<p>Welcome to Conify!</p>" +
-                    "<p>First login: " + formatted + "</p>";
+        String body =
+                "<p>Hi " + user.getUsername() + ",</p>" +
+                "<p>Welcome to Conify!</p>" +
+                "<p>First login: " + formatted + "</p>";
 
-            emailService.sendEmail(user.getEmail(), "Welcome!", body);
-        } catch (Exception ignored) {}
+        emailService.queueEmail(user.getEmail(), "Welcome!", body);
     }
 }
@@ -0,0 +1,143 @@
+package com.conify.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the work that follows a successful login (Mongo profile sync, session record,
+ * last-login stamp, welcome email) off the request thread.
+ * Each user always maps to the same single-threaded lane, so steps for one user run
+ * in submission order while different users proceed in parallel.
+ */
+@Service
+public class LoginSideEffectPipeline {
+
+    @Value("${app.login.pipeline.lanes:4}")
+    private int laneCount;
+
+    @Value("${app.login.pipeline.queue-capacity:5000}")
+    private int queueCapacity;
+
+    @Value("${app.login.pipeline.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.login.pipeline.backoff-ms:200}")
+    private long backoffMs;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor[] lanes;
+
+    private Timer lagTimer;
+    private Counter rejectedCounter;
+
+    @FunctionalInterface
+    public interface Step {
+        void run() throws Exception;
+    }
+
+    @PostConstruct
+    public void init() {
+        lanes = new ThreadPoolExecutor[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            String threadName = "login-pipeline-" + i;
+            lanes[i] = new ThreadPoolExecutor(
+                    1, 1,
+                    0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(queueCapacity),
+                    r -> {
+                        Thread t = new Thread(r, threadName);
+                        t.setDaemon(true);
+                        return t;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy()
+            );
+        }
+
+        Gauge.builder("login.pipeline.queue.depth", this, LoginSideEffectPipeline::queueDepth)
+                .description("Post-login steps waiting across all lanes")
+                .register(meterRegistry);
+        lagTimer = Timer.builder("login.pipeline.lag")
+                .description("Time between login and a step starting")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("login.pipeline.rejected")
+                .description("Steps dropped because their lane was full")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Let already-queued steps finish so sessions/stamps are not lost on restart
+        for (ThreadPoolExecutor lane : lanes) lane.shutdown();
+        for (ThreadPoolExecutor lane : lanes) lane.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Queues a step for the given user. Never blocks and never throws; a full lane
+     * drops the step and counts it.
+     */
+    public void submit(Long userId, String stepName, Step step) {
+        long enqueuedAt = System.nanoTime();
+        ThreadPoolExecutor lane = lanes[Math.floorMod(Long.hashCode(userId), lanes.length)];
+        try {
+            lane.execute(() -> {
+                lagTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                runWithRetry(userId, stepName, step);
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            System.err.println("⚠️ Login pipeline full, dropped '" + stepName + "' for user " + userId);
+        }
+    }
+
+    public int queueDepth() {
+        int depth = 0;
+        for (ThreadPoolExecutor lane : lanes) depth += lane.getQueue().size();
+        return depth;
+    }
+
+    /* =======================
+       HELPERS
+       ======================= */
+
+    // Retries stay on the lane thread so later steps for the same user wait their turn
+    private void runWithRetry(Long userId, String stepName, Step step) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        long delay = backoffMs;
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                step.run();
+                sample.stop(meterRegistry.timer("login.pipeline.step", "step", stepName, "outcome", "success"));
+                return;
+            } catch (Exception e) {
+                if (attempt >= maxAttempts) {
+                    sample.stop(meterRegistry.timer("login.pipeline.step", "step", stepName, "outcome", "failure"));
+                    System.err.println("⚠️ Login step '" + stepName + "' failed for user " + userId
+                            + " after " + attempt + " attempts: " + e.getMessage());
+                    return;
+                }
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                delay *= 2;
+            }
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.conify.service;
+
+import com.conify.model.mongo.MediaBlob;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed upload storage on top of {@link MediaStore}. Bytes are hashed
+ * (SHA-256) while they are staged; each unique file is then kept once under
+ * uploads/media/ab/cd/{hash}.ext and counted in 'media_blobs'. Uploading the same
+ * bytes again only bumps refCount.
+ *
+ * A blob URL never changes content, so it can be cached forever. Renditions are
+ * stored next to it as {hash}_{suffix}.jpg and deleted with it when refCount hits 0.
+ * Private uploads (verification documents) go under uploads/media/private/ instead,
+ * so the URL alone tells the server not to let shared caches keep them. Bytes already
+ * stored keep their first URL either way.
+ */
+@Service
+public class MediaBlobStore {
+
+    // Web paths start with this; the rest is the MediaStore key
+    private static final String WEB_PREFIX = "uploads/";
+    private static final String BLOB_DIR = WEB_PREFIX + "media/";
+    private static final String PRIVATE_DIR = "private/";
+
+    // uploads/media/[private/]ab/cd/{64 hex}{anything without a slash}
+    private static final Pattern BLOB_URL =
+            Pattern.compile("^" + BLOB_DIR + "(" + PRIVATE_DIR + ")?[0-9a-f]{2}/[0-9a-f]{2}/([0-9a-f]{64})[^/]*$");
+
+    // Per-hash critical sections (file + refCount) without one global lock
+    private static final int LOCK_STRIPES = 64;
+
+    @FunctionalInterface
+    public interface UploadInspector {
+        // Looks at the fully received upload; returns the extension to store it under, or throws to reject it
+        String extensionFor(InputStream staged) throws IOException;
+    }
+
+    @Autowired
+    private MediaStore mediaStore;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    private Counter storedNewCounter;
+    private Counter storedDuplicateCounter;
+    private Counter deletedCounter;
+    private Timer stageTimer;
+    private DistributionSummary uploadBytes;
+
+    @PostConstruct
+    public void init() {
+        for (int i = 0; i < LOCK_STRIPES; i++) locks[i] = new Object();
+        storedNewCounter = meterRegistry.counter("media.blobs.stored", "result", "new");
+        storedDuplicateCounter = meterRegistry.counter("media.blobs.stored", "result", "duplicate");
+        deletedCounter = meterRegistry.counter("media.blobs.deleted");
+        stageTimer = Timer.builder("media.upload.stage")
+                .description("Receiving + hashing one upload into the media store")
+                .register(meterRegistry);
+        uploadBytes = DistributionSummary.builder("media.upload.bytes")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /* =======================
+       WRITE
+       ======================= */
+
+    /**
+     * Stages {@code in} while hashing it, lets {@code inspector} accept it and pick the
+     * extension, and stores it under its hash unless an identical blob exists. Either
+     * way the blob's refCount goes up by one; pair every call with a {@link #release}.
+     */
+    public MediaBlob put(InputStream in, UploadInspector inspector) throws IOException {
+        return put(in, inspector, false);
+    }
+
+    // Same as above; a new private blob is stored under the private prefix
+    public MediaBlob put(InputStream in, UploadInspector inspector, boolean privateUpload) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        MediaStore.Staged staged = mediaStore.stage(in);
+        sample.stop(stageTimer);
+        uploadBytes.record(staged.size());
+
+        try {
+            String extension;
+            try (InputStream content = mediaStore.openStaged(staged)) {
+                extension = inspector.extensionFor(content);
+            }
+
+            String hash = staged.sha256();
+            synchronized (lockFor(hash)) {
+                // Same bytes under another extension keep the first URL
+                MediaBlob existing = mongoTemplate.findById(hash, MediaBlob.class);
+                String url = existing != null ? existing.getUrl() : blobUrl(hash, extension, privateUpload);
+
+                if (mediaStore.commit(staged, keyOf(url))) {
+                    storedNewCounter.increment();
+                } else {
+                    storedDuplicateCounter.increment();
+                }
+
+                return mongoTemplate.findAndModify(
+                        new Query(Criteria.where("_id").is(hash)),
+                        new Update().inc("refCount", 1)
+                                .setOnInsert("url", url)
+                                .setOnInsert("size", staged.size())
+                                .setOnInsert("createdAt", Instant.now()),
+                        FindAndModifyOptions.options().upsert(true).returnNew(true),
+                        MediaBlob.class);
+            }
+        } finally {
+            mediaStore.discard(staged);
+        }
+    }
+
+    // Renditions now exist in the store: later uploads of the same bytes reuse them
+    public void recordRenditions(String url, String feedUrl, String thumbnailUrl) {
+        String hash = hashOf(url);
+        if (hash == null) return;
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(hash)),
+                new Update().set("feedUrl", feedUrl).set("thumbnailUrl", thumbnailUrl),
+                MediaBlob.class);
+    }
+
+    /**
+     * Drops one reference to the blob behind {@code url} (original or any rendition).
+     * The last reference deletes the document and every file of the blob.
+     * URLs that are not blob URLs (defaults, external avatars) are ignored.
+     */
+    public void release(String url) {
+        String hash = hashOf(url);
+        if (hash == null) return;
+
+        synchronized (lockFor(hash)) {
+            MediaBlob blob = mongoTemplate.findAndModify(
+                    new Query(Criteria.where("_id").is(hash)),
+                    new Update().inc("refCount", -1),
+                    FindAndModifyOptions.options().returnNew(true),
+                    MediaBlob.class);
+            if (blob == null || blob.getRefCount() > 0) return;
+
+            mongoTemplate.remove(new Query(Criteria.where("_id").is(hash)), MediaBlob.class);
+            try {
+                String key = keyOf(blob.getUrl());
+                mediaStore.deleteByPrefix(key.substring(0, key.lastIndexOf('/') + 1) + hash);
+                deletedCounter.increment();
+            } catch (IOException e) {
+                System.err.println("⚠️ Could not delete media blob " + hash + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // The blob behind url (original or any rendition), or null
+    public MediaBlob find(String url) {
+        String hash = hashOf(url);
+        return hash == null ? null : mongoTemplate.findById(hash, MediaBlob.class);
+    }
+
+    /* =======================
+       PATHS
+       ======================= */
+
+    public boolean isBlobUrl(String url) {
+        return hashOf(url) != null;
+    }
+
+    // Blob stored by a private upload: not for shared caches
+    public boolean isPrivateBlobUrl(String url) {
+        if (url == null) return false;
+        Matcher m = BLOB_URL.matcher(url);
+        return m.matches() && m.group(1) != null;
+    }
+
+    // uploads/media/ab/cd/{hash}.png + "w900" -> uploads/media/ab/cd/{hash}_w900.jpg
+    public String derivedUrl(String url, String suffix) {
+        int dot = url.lastIndexOf('.');
+        int slash = url.lastIndexOf('/');
+        String base = dot > slash ? url.substring(0, dot) : url;
+        return base + "_" + suffix + ".jpg";
+    }
+
+    // "uploads/a/b.jpg" -> MediaStore key "a/b.jpg"; null for anything that is not a plain relative path
+    public String keyOf(String webPath) {
+        if (webPath == null || !webPath.startsWith(WEB_PREFIX)) return null;
+        String key = webPath.substring(WEB_PREFIX.length());
+        if (key.isEmpty() || key.contains("\\")) return null;
+        for (String segment : key.split("/", -1)) {
+            // Also hides dot-directories such as the local backend's .staging
+            if (segment.isEmpty() || segment.startsWith(".")) return null;
+        }
+        return key;
+    }
+
+    /* =======================
+       HELPERS
+       ======================= */
+
+    private static String blobUrl(String hash, String extension, boolean privateUpload) {
+        return BLOB_DIR + (privateUpload ? PRIVATE_DIR : "")
+                + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + extension;
+    }
+
+    private static String hashOf(String url) {
+        if (url == null) return null;
+        Matcher m = BLOB_URL.matcher(url);
+        return m.matches() ? m.group(2) : null;
+    }
+
+    private Object lockFor(String hash) {
+        return locks[Integer.parseInt(hash.substring(0, 2), 16) % LOCK_STRIPES];
+    }
+}
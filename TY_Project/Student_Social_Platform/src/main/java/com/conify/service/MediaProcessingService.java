@@ -0,0 +1,418 @@
+package com.conify.service;
+
+import com.conify.dto.MediaRenditions;
+import com.conify.model.mongo.MediaBlob;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.FileImageInputStream;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Image uploads in two steps: {@link #store} streams the original into the
+ * content-addressed {@link MediaBlobStore} on the request thread (magic bytes and
+ * header only), {@link #process} renders the feed-size and thumbnail renditions on a
+ * CPU-sized worker pool and reports back through a callback.
+ * Originals are decoded subsampled close to the feed width, never at full resolution.
+ *
+ * When the queue is full the job is rejected and counted, never run on the submitting
+ * (request) thread: that image simply keeps its original as the display URL, the same
+ * as when rendering fails.
+ */
+@Service
+public class MediaProcessingService {
+
+    @Value("${app.media.workers:0}")
+    private int workers; // 0 = one per core, minus one for request handling
+
+    @Value("${app.media.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${app.media.feed-width:900}")
+    private int feedWidth;
+
+    @Value("${app.media.thumbnail-width:320}")
+    private int thumbnailWidth;
+
+    // Checked against the header before any pixel is decoded
+    @Value("${app.media.max-pixels:60000000}")
+    private long maxPixels;
+
+    @Autowired
+    private MediaBlobStore blobStore;
+
+    @Autowired
+    private MediaStore mediaStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor executor;
+
+    private Timer processTimer;
+    private Counter rejectedCounter;
+    private Counter failedCounter;
+    private Timer decodeTimer;
+    private DistributionSummary decodeBytes;
+    private DistributionSummary decodeBytesInUseAtStart;
+
+    // Bytes held by decoded images across all workers right now
+    private final AtomicLong decodeBytesInUse = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        int threads = workers > 0 ? workers : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "media-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        Gauge.builder("media.queue.depth", executor, e -> e.getQueue().size())
+                .description("Images waiting for rendition work")
+                .register(meterRegistry);
+        processTimer = Timer.builder("media.process")
+                .description("Decode + resize + encode of all renditions for one image")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("media.rejected")
+                .description("Images left without renditions because the queue was full")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("media.failed")
+                .register(meterRegistry);
+        decodeTimer = Timer.builder("media.decode")
+                .description("Subsampled decode of one original")
+                .register(meterRegistry);
+        decodeBytes = DistributionSummary.builder("media.decode.bytes")
+                .description("Raster size of one subsampled decode")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("media.decode.bytes.in_use", decodeBytesInUse, AtomicLong::get)
+                .description("Decoded raster memory currently held by the worker pool")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        // The gauge is only sampled at scrape time and misses short peaks; its max is the high-water mark
+        decodeBytesInUseAtStart = DistributionSummary.builder("media.decode.bytes.in_use.at_start")
+                .description("Decoded raster memory held by the worker pool as each decode starts, including it")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /* =======================
+       UPLOAD (request thread)
+       ======================= */
+
+    /**
+     * Streams the upload into the content-addressed store. The file type comes from its
+     * magic bytes (the client's file name and content type are ignored) and the pixel
+     * limit is checked from the header alone. Takes one reference on the blob. If the same bytes were uploaded before, the
+     * existing renditions come back already ready.
+     */
+    public MediaRenditions store(MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return store(in);
+        }
+    }
+
+    // Same as above for bytes that did not come as multipart (finished chunked uploads)
+    public MediaRenditions store(InputStream in) throws IOException {
+        // Header only; the pixels are decoded on the worker pool
+        MediaBlob blob = blobStore.put(in, this::inspect);
+
+        String url = blob.getUrl();
+        if (blob.getFeedUrl() != null) {
+            return new MediaRenditions(url, blob.getFeedUrl(), blob.getThumbnailUrl(), true);
+        }
+        // Width in the name: a URL never changes content, even if the config does
+        return new MediaRenditions(url,
+                blobStore.derivedUrl(url, "w" + feedWidth),
+                blobStore.derivedUrl(url, "w" + thumbnailWidth),
+                false);
+    }
+
+    /**
+     * Stores a private document (ID card, receipt) the same way, under the private prefix
+     * so it is never cached publicly. No renditions: returns the original's URL.
+     */
+    public String storeDocument(MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return storeDocument(in);
+        }
+    }
+
+    public String storeDocument(InputStream in) throws IOException {
+        return blobStore.put(in, this::inspect, true).getUrl();
+    }
+
+    // Renditions of an uploaded URL once the worker has recorded them, else null
+    public MediaRenditions readyRenditions(String url) {
+        MediaBlob blob = blobStore.find(url);
+        if (blob == null || blob.getFeedUrl() == null) return null;
+        return new MediaRenditions(blob.getUrl(), blob.getFeedUrl(), blob.getThumbnailUrl(), true);
+    }
+
+    /* =======================
+       RENDITIONS (worker pool)
+       ======================= */
+
+    /**
+     * Queues rendition work. {@code onReady} runs on the worker with the final paths;
+     * renditions not needed (image already small enough) point at the original.
+     * On failure, or when the queue is full, the callback is skipped and the original
+     * stays in use. Already-rendered blobs skip the queue and call back on the caller.
+     */
+    public void process(MediaRenditions media, Consumer<MediaRenditions> onReady) {
+        if (media.isReady()) {
+            onReady.accept(media);
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                Timer.Sample sample = Timer.start(meterRegistry);
+                try {
+                    MediaRenditions done = render(media);
+                    sample.stop(processTimer);
+                    blobStore.recordRenditions(done.getOriginalUrl(), done.getFeedUrl(), done.getThumbnailUrl());
+                    onReady.accept(done);
+                } catch (Exception e) {
+                    failedCounter.increment();
+                    System.err.println("⚠️ Media processing failed for " + media.getOriginalUrl()
+                            + ", keeping the original: " + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            System.err.println("⚠️ Media queue full, keeping the original for " + media.getOriginalUrl());
+        }
+    }
+
+    private MediaRenditions render(MediaRenditions media) throws IOException {
+        Decoded decoded = decode(media.getOriginalUrl(), feedWidth);
+        try {
+            BufferedImage input = decoded.image();
+            // Subsampled, or wider than the feed: the original is not fit to show as-is
+            boolean reduced = decoded.subsampling() > 1 || input.getWidth() > feedWidth;
+
+            BufferedImage feed = scaleToWidth(input, feedWidth);
+            String feedUrl = media.getOriginalUrl();
+            if (reduced) {
+                writeJpeg(toRgb(feed), media.getFeedUrl());
+                feedUrl = media.getFeedUrl();
+            }
+
+            // Thumbnail from the already-reduced image: far fewer pixels to read
+            BufferedImage thumb = scaleToWidth(feed, thumbnailWidth);
+            String thumbnailUrl = feedUrl;
+            if (thumb != feed) {
+                writeJpeg(thumb, media.getThumbnailUrl());
+                thumbnailUrl = media.getThumbnailUrl();
+            }
+
+            return new MediaRenditions(media.getOriginalUrl(), feedUrl, thumbnailUrl, true);
+        } finally {
+            decodeBytesInUse.addAndGet(-decoded.bytes());
+        }
+    }
+
+    /* =======================
+       DECODE
+       ======================= */
+
+    private record Decoded(BufferedImage image, int subsampling, long bytes) {}
+
+    // Type from the magic bytes, then width/height from the header; nothing is decoded
+    private String inspect(InputStream staged) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(staged);
+        in.mark(MAGIC_BYTES);
+        String extension = ImageFormat.sniff(in.readNBytes(MAGIC_BYTES));
+        if (extension == null) throw new IllegalArgumentException("Unsupported file type");
+        in.reset();
+
+        try (ImageInputStream header = new MemoryCacheImageInputStream(in)) {
+            ImageReader reader = readerFor(header);
+            try {
+                checkPixels(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid image");
+        }
+        return extension;
+    }
+
+    /**
+     * Decodes every n-th pixel in both directions, n being the largest step that still
+     * leaves at least {@code targetWidth} columns. A 48 MP photo headed for a 900 px feed
+     * image is read at 1/8 per side, i.e. ~1/64 of the full raster.
+     */
+    private Decoded decode(String webPath, int targetWidth) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try (ImageInputStream in = openImage(blobStore.keyOf(webPath))) {
+            ImageReader reader = readerFor(in);
+            try {
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                checkPixels(width, height);
+
+                int step = Math.max(1, width / targetWidth);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+
+                // Reserved before decoding so the gauge shows what the pool is about to hold
+                long bytes = ((long) ceilDiv(width, step)) * ceilDiv(height, step) * 4;
+                decodeBytes.record(bytes);
+                decodeBytesInUseAtStart.record(decodeBytesInUse.addAndGet(bytes));
+                try {
+                    BufferedImage image = reader.read(0, param);
+                    return new Decoded(image, step, bytes);
+                } catch (IOException | RuntimeException e) {
+                    decodeBytesInUse.addAndGet(-bytes);
+                    throw e;
+                }
+            } finally {
+                reader.dispose();
+                sample.stop(decodeTimer);
+            }
+        }
+    }
+
+    private static ImageReader readerFor(ImageInputStream in) {
+        if (in == null) throw new IllegalArgumentException("Invalid image");
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+        if (!readers.hasNext()) throw new IllegalArgumentException("Invalid image");
+
+        ImageReader reader = readers.next();
+        reader.setInput(in, true, true);
+        return reader;
+    }
+
+    private void checkPixels(int width, int height) {
+        if (width <= 0 || height <= 0 || (long) width * height > maxPixels) {
+            throw new IllegalArgumentException("Image too large (max " + maxPixels / 1_000_000 + " MP)");
+        }
+    }
+
+    private static int ceilDiv(int a, int b) {
+        return (a + b - 1) / b;
+    }
+
+    /* =======================
+       HELPERS
+       ======================= */
+
+    // Same instance when no downscale is needed
+    private static BufferedImage scaleToWidth(BufferedImage input, int maxWidth) {
+        if (input.getWidth() <= maxWidth) return input;
+
+        int height = Math.max(1, (int) (input.getHeight() * ((double) maxWidth / input.getWidth())));
+        return draw(input, maxWidth, height);
+    }
+
+    // JPEG has no alpha channel; a subsampled PNG can come out ARGB at the exact feed width
+    private static BufferedImage toRgb(BufferedImage input) {
+        if (input.getType() == BufferedImage.TYPE_INT_RGB) return input;
+        return draw(input, input.getWidth(), input.getHeight());
+    }
+
+    private static BufferedImage draw(BufferedImage input, int width, int height) {
+        BufferedImage output = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = output.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(input, 0, 0, width, height, null);
+        g.dispose();
+        return output;
+    }
+
+    // Random access straight on the file when the backend has one (no read-ahead cache)
+    private ImageInputStream openImage(String key) throws IOException {
+        Path file = mediaStore.localFile(key);
+        if (file != null) return new FileImageInputStream(file.toFile());
+        return new MemoryCacheImageInputStream(mediaStore.open(key));
+    }
+
+    // Renditions are small: encoded in memory, then written in one atomic step
+    private void writeJpeg(BufferedImage image, String webPath) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (!ImageIO.write(image, "jpg", out)) throw new IOException("No JPEG writer");
+        mediaStore.write(blobStore.keyOf(webPath), out.toByteArray());
+    }
+
+    /* =======================
+       FILE TYPES
+       ======================= */
+
+    private static final int MAGIC_BYTES = 12;
+
+    // Formats the JDK can decode, recognised by their leading bytes
+    private enum ImageFormat {
+        JPEG(".jpg", 0xFF, 0xD8, 0xFF),
+        PNG(".png", 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A),
+        GIF(".gif", 'G', 'I', 'F', '8'),
+        BMP(".bmp", 'B', 'M');
+
+        private final String extension;
+        private final int[] magic;
+
+        ImageFormat(String extension, int... magic) {
+            this.extension = extension;
+            this.magic = magic;
+        }
+
+        static String sniff(byte[] header) {
+            for (ImageFormat format : values()) {
+                if (format.matches(header)) return format.extension;
+            }
+            return null;
+        }
+
+        private boolean matches(byte[] header) {
+            if (header.length < magic.length) return false;
+            for (int i = 0; i < magic.length; i++) {
+                if ((header[i] & 0xFF) != magic[i]) return false;
+            }
+            return true;
+        }
+    }
+}
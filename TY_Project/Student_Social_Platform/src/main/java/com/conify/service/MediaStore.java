@@ -0,0 +1,55 @@
+package com.conify.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * Byte storage behind everything under /uploads/**. Keys are relative paths
+ * ("media/ab/cd/{hash}.png"); layout, hashing policy and ref counts live in
+ * {@link MediaBlobStore}, decoding in {@link MediaProcessingService}.
+ *
+ * Backends: {@link LocalMediaStore} (app.upload.dir, default) and
+ * {@link InMemoryMediaStore} (app.media.store=memory, for tests).
+ */
+public interface MediaStore {
+
+    // A fully received upload that is not visible under any key yet
+    record Staged(String sha256, long size, Object handle) {}
+
+    record Stat(long size, Instant lastModified) {}
+
+    /* ---------------- uploads ---------------- */
+
+    // Streams the bytes in, hashing them on the way
+    Staged stage(InputStream in) throws IOException;
+
+    InputStream openStaged(Staged staged) throws IOException;
+
+    // Makes the upload visible under key; false (and discarded) if key already exists
+    boolean commit(Staged staged, String key) throws IOException;
+
+    void discard(Staged staged);
+
+    /* ---------------- objects ---------------- */
+
+    // Atomically creates or replaces key
+    void write(String key, byte[] bytes) throws IOException;
+
+    InputStream open(String key) throws IOException;
+
+    // null when absent
+    Stat stat(String key) throws IOException;
+
+    long transferTo(String key, long position, long count, WritableByteChannel target) throws IOException;
+
+    // Deletes every key starting with keyPrefix inside its directory ("media/ab/cd/{hash}")
+    void deleteByPrefix(String keyPrefix) throws IOException;
+
+    // Backing file for zero-copy serving, or null if the backend has none
+    default Path localFile(String key) {
+        return null;
+    }
+}
@@ -0,0 +1,98 @@
+package com.conify.service;
+
+import at.favre.lib.crypto.bcrypt.BCrypt;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt hashing/verification on a small dedicated pool so the ~250ms of CPU
+ * never happens while a request holds the single SQLite connection.
+ * A full queue rejects immediately instead of letting logins pile up.
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final int BCRYPT_COST = 12;
+
+    @Value("${app.security.hashing.threads:2}")
+    private int threads;
+
+    @Value("${app.security.hashing.queue-capacity:32}")
+    private int queueCapacity;
+
+    @Value("${app.security.hashing.timeout-ms:5000}")
+    private long timeoutMs;
+
+    private ThreadPoolExecutor executor;
+
+    /**
+     * Thrown when the hashing pool is saturated; controllers map it to 503.
+     */
+    public static class HashingBusyException extends RuntimeException {
+        public HashingBusyException(String message) { super(message); }
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "bcrypt-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public String hash(String password) {
+        return run(() -> BCrypt.withDefaults().hashToString(BCRYPT_COST, password.toCharArray()));
+    }
+
+    public boolean verify(String password, String passwordHash) {
+        return run(() -> BCrypt.verifyer().verify(password.toCharArray(), passwordHash).verified);
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new HashingBusyException("System busy. Try again.");
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new HashingBusyException("System busy. Try again.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HashingBusyException("Interrupted while hashing.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+}
@@ -1,69 +1,129 @@
 package com.conify.service;
 
-import com.conify.model.mongo.Notification;
+import com.conify.dto.FeedPage;
+import com.conify.dto.FeedPost;
+import com.conify.dto.LikeToggleResult;
+import com.conify.dto.MediaRenditions;
+import com.conify.model.mongo.ChatMessage;
+import com.conify.model.mongo.CommunityMessage;
+import com.conify.model.mongo.GroupMessage;
 import com.conify.model.mongo.Post;
+import com.conify.model.mongo.PostLike;
 import com.conify.model.mongo.UserProfile;
 import com.conify.repository.mongo.PostRepository;
 import com.conify.repository.mongo.UserProfileRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.imageio.ImageIO;
-import java.awt.Graphics2D;
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.InputStream;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Set;
 
 @Service
 public class PostService {
 
     @Autowired private PostRepository postRepository;
     @Autowired private UserProfileRepository userProfileRepository;
-    @Autowired private NotificationService notificationService;
     @Autowired private SimpMessagingTemplate messagingTemplate;
+    @Autowired private MongoTemplate mongoTemplate;
+    @Autowired private HotFeedCache hotFeedCache;
+    @Autowired private LikeAggregator likeAggregator;
+    @Autowired private MediaProcessingService mediaProcessingService;
+    @Autowired private MediaBlobStore mediaBlobStore;
 
-    private static final String CONTENT_UPLOAD_DIR = "src/main/resources/static/uploads/content/";
+    @Value("${app.feed.page-size:20}")
+    private int feedPageSize;
+
+    private static final int MAX_FEED_PAGE_SIZE = 100;
 
     /* =====================================================
        🔥 REQUIRED BY ChatController + PostController
+       Stores the original and returns it as a placeholder URL
+       (or the feed rendition for already-seen bytes); messages sent
+       with it are switched over once the worker pool is done.
        ===================================================== */
     public String saveAndCompressImage(MultipartFile file) throws Exception {
-        File dir = new File(CONTENT_UPLOAD_DIR);
-        if (!dir.exists() && !dir.mkdirs()) {
-            throw new IllegalStateException("Failed to create upload directory");
+        return saveMessageMedia(mediaProcessingService.store(file));
+    }
+
+    // Finished resumable upload (ChunkedUploadService.finish)
+    public String saveAndCompressImage(InputStream in) throws Exception {
+        return saveMessageMedia(mediaProcessingService.store(in));
+    }
+
+    private String saveMessageMedia(MediaRenditions media) {
+        mediaProcessingService.process(media, this::applyMessageMedia);
+        return media.getDisplayUrl();
+    }
+
+    /**
+     * Call right after saving a chat, group or community message with an uploaded image.
+     * If the renditions finished before the message existed, the worker's update matched
+     * nothing; this switches the message over instead. The worker records the renditions
+     * before it updates messages, so one of the two always sees the other.
+     * Returns the URL the saved message now points at.
+     */
+    public String settleMessageMedia(String mediaUrl) {
+        if (mediaUrl == null || mediaUrl.isBlank()) return mediaUrl;
+        MediaRenditions ready = mediaProcessingService.readyRenditions(mediaUrl);
+        if (ready == null || !ready.getOriginalUrl().equals(mediaUrl)) return mediaUrl;
+
+        applyMessageMedia(ready);
+        return ready.getFeedUrl();
+    }
+
+    // Placeholder -> feed rendition on every message using it, plus a MEDIA_READY to whoever shows it
+    private void applyMessageMedia(MediaRenditions media) {
+        if (media.getFeedUrl().equals(media.getOriginalUrl())) return;
+        String feedUrl = media.getFeedUrl();
+        Update toFeed = new Update().set("mediaUrl", feedUrl);
+
+        for (ChatMessage msg : mongoTemplate.find(
+                byPlaceholder(media, "senderId", "recipientId", "conversationId"), ChatMessage.class)) {
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(msg.getId())), toFeed, ChatMessage.class);
+            java.util.Map<String, Object> event = java.util.Map.of(
+                    "type", "MEDIA_READY",
+                    "messageId", msg.getId(),
+                    "conversationId", msg.getConversationId(),
+                    "mediaUrl", feedUrl);
+            messagingTemplate.convertAndSendToUser(String.valueOf(msg.getSenderId()), "/queue/media", event);
+            messagingTemplate.convertAndSendToUser(String.valueOf(msg.getRecipientId()), "/queue/media", event);
         }
 
-        String original = file.getOriginalFilename();
-        if (original == null || !original.contains(".")) {
-            throw new IllegalArgumentException("Invalid file name");
+        for (GroupMessage msg : mongoTemplate.find(byPlaceholder(media, "groupId"), GroupMessage.class)) {
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(msg.getId())), toFeed, GroupMessage.class);
+            messagingTemplate.convertAndSend(
+                    "/topic/group/" + msg.getGroupId(),
+                    java.util.Map.of("type", "MEDIA_READY", "messageId", msg.getId(), "mediaUrl", feedUrl)
+            );
         }
 
-        String ext = original.substring(original.lastIndexOf("."));
-        String name = UUID.randomUUID() + ext;
-        Path path = Paths.get(dir.getAbsolutePath(), name);
-
-        BufferedImage input = ImageIO.read(file.getInputStream());
-        if (input == null) throw new IllegalArgumentException("Invalid image");
-
-        int targetWidth = 900;
-        if (input.getWidth() > targetWidth) {
-            int targetHeight = (int) (input.getHeight() * ((double) targetWidth / input.getWidth()));
-            BufferedImage output = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
-            Graphics2D g = output.createGraphics();
-            g.drawImage(input, 0, 0, targetWidth, targetHeight, null);
-            g.dispose();
-            ImageIO.write(output, ext.substring(1), path.toFile());
-        } else {
-            file.transferTo(path.toFile());
+        for (CommunityMessage msg : mongoTemplate.find(byPlaceholder(media, "communityId"), CommunityMessage.class)) {
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(msg.getId())), toFeed, CommunityMessage.class);
+            messagingTemplate.convertAndSend(
+                    "/topic/community/" + msg.getCommunityId(),
+                    java.util.Map.of("type", "MEDIA_READY", "postId", msg.getId(), "mediaUrl", feedUrl)
+            );
         }
+    }
 
-        return "uploads/content/" + name;
+    private static Query byPlaceholder(MediaRenditions media, String... fields) {
+        Query query = new Query(Criteria.where("mediaUrl").is(media.getOriginalUrl()));
+        for (String field : fields) query.fields().include(field);
+        return query;
     }
 
     /* =====================================================
@@ -77,7 +137,8 @@ public class PostService {
         Post post = new Post();
         post.setUserId(userId);
         post.setContent(content);
-        post.setCreatedAt(Instant.now());
+        // Millisecond precision, same as Mongo stores, so cached and stored posts sort alike
+        post.setCreatedAt(Instant.now().truncatedTo(ChronoUnit.MILLIS));
         post.setAuthorSnapshot(
                 new Post.AuthorSnapshot(
                         profile.getUsername(),
@@ -86,14 +147,25 @@ public class PostService {
                 )
         );
 
+        MediaRenditions media = null;
         if (imageFile != null && !imageFile.isEmpty()) {
-            post.setMediaUrl(saveAndCompressImage(imageFile));
+            // Original now (placeholder), renditions later via MEDIA_READY
+            media = mediaProcessingService.store(imageFile);
+            post.setMediaUrl(media.getDisplayUrl());
+            post.setOriginalUrl(media.getOriginalUrl());
             post.setMediaType(Post.MediaType.IMAGE);
         } else {
             post.setMediaType(Post.MediaType.NONE);
         }
 
-        Post saved = postRepository.save(post);
+        Post saved;
+        try {
+            saved = postRepository.save(post);
+        } catch (RuntimeException e) {
+            if (media != null) mediaBlobStore.release(media.getOriginalUrl()); // never got referenced
+            throw e;
+        }
+        hotFeedCache.publish(saved);
 
         // 🔥 REALTIME FEED PUSH
         messagingTemplate.convertAndSend(
@@ -101,48 +173,118 @@ public class PostService {
                 java.util.Map.of("type", "POST_CREATED", "post", saved)
         );
 
+        if (media != null) {
+            String postId = saved.getId();
+            mediaProcessingService.process(media, ready -> applyPostMedia(postId, ready));
+        }
+
         return saved;
     }
 
-    /* =====================================================
-       FEED
-       ===================================================== */
-    public List<Post> getFeed() {
-        return postRepository.findAllByOrderByCreatedAtDesc();
+    private void applyPostMedia(String postId, MediaRenditions media) {
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(postId)),
+                new Update().set("mediaUrl", media.getFeedUrl()).set("thumbnailUrl", media.getThumbnailUrl()),
+                Post.class);
+        hotFeedCache.updateMedia(postId, media.getFeedUrl(), media.getThumbnailUrl());
+
+        messagingTemplate.convertAndSend(
+                "/topic/feed",
+                java.util.Map.of(
+                        "type", "MEDIA_READY",
+                        "postId", postId,
+                        "mediaUrl", media.getFeedUrl(),
+                        "thumbnailUrl", media.getThumbnailUrl())
+        );
     }
 
     /* =====================================================
-       LIKE TOGGLE (RACE SAFE)
+       FEED (KEYSET PAGINATION ON createdAt DESC, _id DESC)
+       Served by the {createdAt: -1, _id: -1} index, so every page
+       is an index range scan no matter how many posts exist.
        ===================================================== */
-    public Post toggleLike(String postId, Long userId) throws Exception {
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new RuntimeException("Post not found"));
-
-        synchronized (post) {
-            if (post.getLikes().contains(userId)) {
-                post.getLikes().remove(userId);
-            } else {
-                post.getLikes().add(userId);
-                notificationService.createNotification(
-                        userId,
-                        post.getUserId(),
-                        Notification.NotificationType.POST_LIKE,
-                        "liked your post",
-                        post.getId(),
-                        null
-                );
+    public FeedPage getFeed(String cursor, Integer limit, Long viewerId) {
+        int pageSize = resolvePageSize(limit);
+
+        // First screen: answered from the in-memory ring when it is warm
+        if (cursor == null || cursor.isBlank()) {
+            List<Post> cached = hotFeedCache.firstPage(pageSize);
+            if (cached != null) return toPage(cached, pageSize, viewerId);
+        }
+
+        Query query = new Query()
+                .with(Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "_id")))
+                .limit(pageSize + 1);
+        if (cursor != null && !cursor.isBlank()) {
+            query.addCriteria(KeysetCursor.parse(cursor).olderThan("createdAt"));
+        }
+
+        return toPage(mongoTemplate.find(query, Post.class), pageSize, viewerId);
+    }
+
+    // 'posts' is newest first and may hold one extra element signalling another page
+    private FeedPage toPage(List<Post> posts, int pageSize, Long viewerId) {
+        boolean hasMore = posts.size() > pageSize;
+        if (hasMore) posts = posts.subList(0, pageSize);
+
+        String nextCursor = hasMore ? cursorOf(posts.get(posts.size() - 1)) : null;
+        String newestCursor = posts.isEmpty() ? null : cursorOf(posts.get(0));
+        return new FeedPage(withLikedByMe(posts, viewerId), nextCursor, newestCursor, hasMore);
+    }
+
+    // One {userId, postId: {$in: page}} lookup on post_likes for the whole page
+    private List<FeedPost> withLikedByMe(List<Post> posts, Long viewerId) {
+        Set<String> liked = new HashSet<>();
+        if (viewerId != null && !posts.isEmpty()) {
+            List<String> ids = new ArrayList<>(posts.size());
+            for (Post p : posts) ids.add(p.getId());
+
+            Query query = new Query(Criteria.where("postId").in(ids).and("userId").is(viewerId));
+            query.fields().include("postId").exclude("_id");
+            for (PostLike like : mongoTemplate.find(query, PostLike.class)) {
+                liked.add(like.getPostId());
             }
-            post.setLikeCount(post.getLikes().size());
         }
 
-        Post saved = postRepository.save(post);
+        List<FeedPost> result = new ArrayList<>(posts.size());
+        for (Post p : posts) result.add(new FeedPost(p, liked.contains(p.getId())));
+        return result;
+    }
 
-        // 🔥 REALTIME UPDATE
-        messagingTemplate.convertAndSend(
-                "/topic/feed",
-                java.util.Map.of("type", "POST_LIKED", "post", saved)
-        );
+    // Only posts newer than the cursor, newest first. hasMore means the client missed
+    // more than a page and should reload from the top instead.
+    public FeedPage getFeedNewerThan(String newerThan, Integer limit, Long viewerId) {
+        int pageSize = resolvePageSize(limit);
+        Query query = new Query(KeysetCursor.parse(newerThan).newerThan("createdAt"))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt").and(Sort.by(Sort.Direction.ASC, "_id")))
+                .limit(pageSize + 1);
 
-        return saved;
+        List<Post> posts = mongoTemplate.find(query, Post.class);
+        boolean hasMore = posts.size() > pageSize;
+        if (hasMore) posts = posts.subList(0, pageSize);
+        Collections.reverse(posts);
+
+        String newestCursor = posts.isEmpty() ? newerThan : cursorOf(posts.get(0));
+        return new FeedPage(withLikedByMe(posts, viewerId), null, newestCursor, hasMore);
+    }
+
+    private static String cursorOf(Post post) {
+        return KeysetCursor.of(post.getCreatedAt(), post.getId());
+    }
+
+    private int resolvePageSize(Integer limit) {
+        if (limit == null || limit <= 0) return feedPageSize;
+        return Math.min(limit, MAX_FEED_PAGE_SIZE);
+    }
+
+    /* =====================================================
+       LIKE TOGGLE (WRITE-BEHIND)
+       Answered from LikeAggregator's in-memory buffer; the
+       post_likes / likeCount writes follow in the next batched
+       flush, and the new count goes out in FeedEventCoalescer's
+       next POST_DELTAS frame (POST_LIKED is community-only).
+       ===================================================== */
+    public LikeToggleResult toggleLike(String postId, Long userId) {
+        return likeAggregator.toggle(LikeAggregator.Target.POST, postId, userId);
     }
 }
@@ -6,9 +6,9 @@ import com.conify.model.User;
 import com.conify.model.mongo.UserProfile; 
 import com.conify.repository.UserRepository;
 import com.conify.repository.mongo.UserProfileRepository; 
-import at.favre.lib.crypto.bcrypt.BCrypt;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
@@ -33,32 +33,54 @@ public class RegisterService {
     @Autowired
     private EmailService emailService; 
 
-    @Transactional(readOnly = true)
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private UserAvailabilityFilter availabilityFilter;
+
+    @Autowired
+    private AvatarService avatarService;
+
     public void checkUserExists(CheckUserDTO checkUserDTO) throws Exception {
         String lowercaseEmail = checkUserDTO.getEmail().toLowerCase();
         String lowercaseUsername = checkUserDTO.getUsername().toLowerCase();
 
-        // 1. Check SQLite (Auth DB)
-        if (userRepository.existsByEmail(lowercaseEmail)) {
+        // 0. Bloom filter fast path: a miss means neither database has it
+        boolean emailMaybeTaken = availabilityFilter.mightContainEmail(lowercaseEmail);
+        boolean usernameMaybeTaken = availabilityFilter.mightContainUsername(lowercaseUsername);
+        if (!emailMaybeTaken && !usernameMaybeTaken) {
+            availabilityFilter.recordDefinitelyFree();
+            return;
+        }
+        availabilityFilter.recordMaybeTaken();
+
+        // 1. Check SQLite (Auth DB), only for the values the filter flagged
+        if (emailMaybeTaken && userRepository.existsByEmail(lowercaseEmail)) {
             throw new Exception("This email is already registered. Please log in.");
         }
-        if (userRepository.existsByUsername(lowercaseUsername)) {
+        if (usernameMaybeTaken && userRepository.existsByUsername(lowercaseUsername)) {
             throw new Exception("This username is already taken. Please choose another.");
         }
 
         // 2. Check MongoDB (Profile DB) - Extra safety
-        if (userProfileRepository.findByUsername(lowercaseUsername).isPresent() || 
-            userProfileRepository.findByUsername("@" + lowercaseUsername).isPresent()) {
+        if (usernameMaybeTaken && (userProfileRepository.findByUsername(lowercaseUsername).isPresent() ||
+            userProfileRepository.findByUsername("@" + lowercaseUsername).isPresent())) {
             throw new Exception("This username is already associated with a profile.");
         }
         
-        if (userProfileRepository.findByEmail(lowercaseEmail).isPresent()) {
+        if (emailMaybeTaken && userProfileRepository.findByEmail(lowercaseEmail).isPresent()) {
              throw new Exception("This email is already associated with a profile.");
         }
+
+        // Filter said "maybe", databases said "free"
+        availabilityFilter.recordFalsePositive();
     }
 
+    // Not @Transactional: the existence checks and the insert are each a short
+    // transaction, so the BCrypt hash never runs while the SQLite connection is held.
+    // The unique constraints on username/email still catch a concurrent duplicate.
     @Retryable(retryFor = CannotAcquireLockException.class, maxAttempts = 3, backoff = @Backoff(delay = 1000))
-    @Transactional
     public String registerUser(RegisterDTO registerDTO) throws Exception {
         
         String lowercaseEmail = registerDTO.getEmail().toLowerCase();
@@ -83,8 +105,8 @@ public class RegisterService {
             throw new Exception("You must be at least 11 years old to register.");
         }
 
-        // 3. Hash password
-        String hashedPassword = BCrypt.withDefaults().hashToString(12, registerDTO.getPassword().toCharArray());
+        // 3. Hash password (bounded hashing pool, outside any transaction)
+        String hashedPassword = passwordHashingService.hash(registerDTO.getPassword());
 
         // 4. Generate OTP
         String otp = String.format("%04d", new Random().nextInt(9000) + 1000);
@@ -108,12 +130,25 @@ public class RegisterService {
         newUser.setLastLoginAt(null);
 
         // 7. Save to DB
-        User savedUser = userRepository.save(newUser);
+        User savedUser;
+        try {
+            savedUser = userRepository.save(newUser);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent registration won the race; re-check to tell which value collided
+            if (userRepository.existsByUsername(lowercaseUsername)) {
+                throw new Exception("This username is already taken.");
+            }
+            if (userRepository.existsByEmail(lowercaseEmail)) {
+                throw new Exception("This email is already registered.");
+            }
+            throw new Exception("Registration failed, please try again.");
+        }
+        availabilityFilter.add(savedUser.getUsername(), savedUser.getEmail());
         
         // 8. SYNC TO MONGODB IMMEDIATELY (Initial profile creation)
         createMongoProfile(savedUser);
 
-        // 9. Send Email
+        // 9. Queue Email (sent by the outbox dispatcher)
         String emailSubject = "Your Conify Verification Code";
         String emailBody = "<p style=\"font-size: 18px; margin-bottom: 24px;\">Welcome to Conify!</p>"
                          + "<p style=\"color: #e5e7eb; margin-bottom: 24px;\">Your 4-digit verification code is:</p>"
@@ -122,7 +157,7 @@ public class RegisterService {
                          + "</h2>"
                          + "<p style=\"color: #9ca3af; font-size: 14px;\">This code will expire in 15 minutes.</p>";
         
-        emailService.sendEmail(newUser.getEmail(), emailSubject, emailBody);
+        emailService.queueEmail(newUser.getEmail(), emailSubject, emailBody);
 
         return "OTP sent to " + newUser.getEmail();
     }
@@ -146,7 +181,7 @@ public class RegisterService {
             }
 
             // Default avatar
-            profile.setAvatarUrl("https://ui-avatars.com/api/?name=" + sqlUser.getUsername() + "&background=random");
+            profile.setAvatarUrl(avatarService.defaultUrl(sqlUser.getUsername()));
             profile.setVerificationStatus("NONE"); // Default status
 
             userProfileRepository.save(profile);
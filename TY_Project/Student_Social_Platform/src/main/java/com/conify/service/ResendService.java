@@ -46,11 +46,11 @@ public class ResendService {
         userRepository.save(user);
         System.out.println("🔄 OTP resent & updated in DB for: " + email);
 
-        // 5. Send the new email
+        // 5. Queue the new email (sent by the outbox dispatcher)
         String emailSubject = "Resend: Your Conify Verification Code";
         String emailBody = "Here is your new verification code: " + newOtp + 
                            "\nIt will expire in 5 minutes.";
         
-        emailService.sendEmail(email, emailSubject, emailBody);
+        emailService.queueEmail(email, emailSubject, emailBody);
     }
 }
\ No newline at end of file
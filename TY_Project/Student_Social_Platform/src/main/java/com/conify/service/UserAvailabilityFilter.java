@@ -0,0 +1,242 @@
+package com.conify.service;
+
+import com.conify.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory Bloom filter of every taken username and email (SQLite users + Mongo profiles).
+ * "Not in the filter" means definitely free, so availability checks only hit the
+ * databases when the filter reports a possible match.
+ *
+ * Bloom filters cannot remove entries: deletes mark the filter dirty and it is rebuilt
+ * in the background. Until the first rebuild succeeds every lookup reports "maybe taken".
+ */
+@Service
+public class UserAvailabilityFilter {
+
+    @Value("${app.registration.bloom.expected-entries:100000}")
+    private int expectedEntries;
+
+    @Value("${app.registration.bloom.false-positive-rate:0.01}")
+    private double targetFpp;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private volatile BloomFilter current;
+    private volatile BloomFilter rebuilding; // Receives adds while a rebuild is running
+    private volatile boolean ready = false;
+    private volatile boolean dirty = false;
+
+    private Counter definitelyFree;
+    private Counter maybeTaken;
+    private Counter falsePositives;
+
+    @PostConstruct
+    public void init() {
+        current = new BloomFilter(expectedEntries, targetFpp);
+
+        definitelyFree = meterRegistry.counter("availability.bloom.checks", "result", "definitely_free");
+        maybeTaken = meterRegistry.counter("availability.bloom.checks", "result", "maybe_taken");
+        falsePositives = meterRegistry.counter("availability.bloom.false_positives");
+
+        // Observed: share of actually-free lookups the filter wrongly flagged
+        Gauge.builder("availability.bloom.false_positive_rate", this, f -> {
+            double fp = f.falsePositives.count();
+            double free = f.definitelyFree.count() + fp;
+            return free == 0 ? 0 : fp / free;
+        }).register(meterRegistry);
+        // Estimated from how full the bit array is
+        Gauge.builder("availability.bloom.expected_fpp", this, f -> f.current.expectedFpp())
+                .register(meterRegistry);
+    }
+
+    /* =======================
+       LOOKUPS
+       ======================= */
+
+    public boolean mightContainUsername(String username) {
+        return !ready || current.mightContain(usernameKey(username));
+    }
+
+    public boolean mightContainEmail(String email) {
+        return !ready || current.mightContain(emailKey(email));
+    }
+
+    public void recordDefinitelyFree() { definitelyFree.increment(); }
+
+    public void recordMaybeTaken() { maybeTaken.increment(); }
+
+    // Filter said "maybe", the databases said "free"
+    public void recordFalsePositive() { falsePositives.increment(); }
+
+    /* =======================
+       UPDATES
+       ======================= */
+
+    public void add(String username, String email) {
+        // Read 'rebuilding' first: once it is cleared, 'current' is already the rebuilt filter
+        BloomFilter next = rebuilding;
+        if (next != null) {
+            next.put(usernameKey(username));
+            next.put(emailKey(email));
+        }
+
+        BloomFilter target = current;
+        target.put(usernameKey(username));
+        target.put(emailKey(email));
+    }
+
+    // Called after users/profiles are deleted; the rebuild drops them from the filter
+    public void markDirty() {
+        dirty = true;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${app.registration.bloom.rebuild-check-ms:30000}")
+    public void rebuildIfDirty() {
+        if (dirty) rebuild();
+    }
+
+    synchronized void rebuild() {
+        dirty = false;
+        BloomFilter fresh = new BloomFilter(expectedEntries, targetFpp);
+        // Publish before reading the databases so concurrent registrations land in both
+        rebuilding = fresh;
+        try {
+            for (UserRepository.UsernameAndEmail u : userRepository.findAllProjectedBy()) {
+                fresh.put(usernameKey(u.getUsername()));
+                fresh.put(emailKey(u.getEmail()));
+            }
+
+            Query profiles = new Query();
+            profiles.fields().include("username").include("email");
+            for (Document p : mongoTemplate.find(profiles, Document.class, "user_profiles")) {
+                fresh.put(usernameKey(p.getString("username")));
+                fresh.put(emailKey(p.getString("email")));
+            }
+
+            current = fresh;
+            ready = true;
+            System.out.println("✅ Availability filter rebuilt (" + fresh.bitCount() + " bits set)");
+        } catch (Exception e) {
+            // Keep the previous filter: it is a superset, so it is still safe to use
+            dirty = true;
+            System.err.println("⚠️ Availability filter rebuild failed: " + e.getMessage());
+        } finally {
+            rebuilding = null;
+        }
+    }
+
+    /* =======================
+       HELPERS
+       ======================= */
+
+    // Usernames are stored lowercase in SQLite and with an '@' prefix in Mongo
+    private static String usernameKey(String username) {
+        if (username == null) return "u:";
+        String u = username.toLowerCase();
+        return "u:" + (u.startsWith("@") ? u.substring(1) : u);
+    }
+
+    private static String emailKey(String email) {
+        return "e:" + (email == null ? "" : email.toLowerCase());
+    }
+
+    /**
+     * Fixed-size, lock-free Bloom filter using double hashing over a 64-bit FNV-1a hash.
+     */
+    static final class BloomFilter {
+        private final AtomicLongArray words;
+        private final int numBits;
+        private final int numHashes;
+
+        BloomFilter(int expectedEntries, double fpp) {
+            int n = Math.max(1, expectedEntries);
+            long m = (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+            this.numBits = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, m));
+            this.numHashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+            this.words = new AtomicLongArray((numBits + 63) / 64);
+        }
+
+        void put(String key) {
+            long h1 = fnv1a64(key);
+            long h2 = mix64(h1) | 1; // odd step so probes do not collapse
+            for (int i = 0; i < numHashes; i++) {
+                int bit = (int) Long.remainderUnsigned(h1 + i * h2, numBits);
+                setBit(bit);
+            }
+        }
+
+        boolean mightContain(String key) {
+            long h1 = fnv1a64(key);
+            long h2 = mix64(h1) | 1;
+            for (int i = 0; i < numHashes; i++) {
+                int bit = (int) Long.remainderUnsigned(h1 + i * h2, numBits);
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) return false;
+            }
+            return true;
+        }
+
+        long bitCount() {
+            long count = 0;
+            for (int i = 0; i < words.length(); i++) count += Long.bitCount(words.get(i));
+            return count;
+        }
+
+        double expectedFpp() {
+            return Math.pow((double) bitCount() / numBits, numHashes);
+        }
+
+        private void setBit(int bit) {
+            int index = bit >>> 6;
+            long mask = 1L << bit;
+            long prev;
+            do {
+                prev = words.get(index);
+                if ((prev & mask) != 0) return;
+            } while (!words.compareAndSet(index, prev, prev | mask));
+        }
+
+        private static long fnv1a64(String key) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= (b & 0xff);
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+
+        // SplitMix64 finalizer
+        private static long mix64(long z) {
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
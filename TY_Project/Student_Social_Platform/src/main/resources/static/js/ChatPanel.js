@@ -32,6 +32,11 @@
     // 🔥 REPLY STATE
     let replyContext = null;
 
+    // History paging (?before= cursor for the page above the oldest loaded message)
+    let olderCursor = null;
+    let hasOlderHistory = false;
+    let loadingOlder = false;
+
     // presence map: userId (string) -> boolean
     const presence = {};
     // 🔥 last-seen cache: userId -> ISO timestamp
@@ -167,6 +172,9 @@
             stompClient.subscribe(`/user/queue/read-receipts`, onStompRead);
             stompClient.subscribe(`/user/${userId}/queue/read-receipts`, onStompRead);
 
+            stompClient.subscribe(`/user/queue/media`, onStompMedia);
+            stompClient.subscribe(`/user/${userId}/queue/media`, onStompMedia);
+
             stompClient.subscribe(`/topic/presence`, onStompPresence);
             stompClient.subscribe(`/user/queue/presence`, onStompPresence);
             stompClient.subscribe(`/user/${userId}/queue/presence`, onStompPresence);
@@ -193,6 +201,9 @@
     function onStompPresence(m) {
         if (m?.body) handlePresenceEvent(JSON.parse(m.body));
     }
+    function onStompMedia(m) {
+        if (m?.body) handleMediaReady(JSON.parse(m.body));
+    }
 
     // --- HANDLERS ---
 
@@ -264,12 +275,17 @@
     
     function handleReadReceipt(receipt) {
         if (!receipt) return;
+        // Receipts name the reader; ignore ones for a chat that is not open
+        if (receipt.readerId != null && (!selectedUser || String(receipt.readerId) !== String(selectedUser.id))) return;
         const lastReadId = receipt.id || receipt.messageId || receipt.messageID || null;
+        // Watermark: everything sent up to readUpTo is read
+        const readUpTo = receipt.readUpTo ? new Date(receipt.readUpTo).getTime() : null;
         let updated = false;
 
         if (lastReadId) {
             for (let m of currentMessages) {
-                if (m.sender === 'me') {
+                const sentAt = new Date(m.rawTimestamp).getTime();
+                if (m.sender === 'me' && m.status !== 'READ' && (readUpTo === null || sentAt <= readUpTo)) {
                     m.status = 'READ';
                     updated = true;
                 }
@@ -292,6 +308,21 @@
         }
     }
     
+    // Image renditions finished: swap the placeholder in the open chat
+    function handleMediaReady(evt) {
+        if (!evt || evt.type !== 'MEDIA_READY' || !evt.mediaUrl) return;
+        const m = currentMessages.find(x => String(x.id) === String(evt.messageId));
+        if (!m) return;
+
+        m.image = evt.mediaUrl.startsWith('http') ? evt.mediaUrl : `${API_BASE}/${evt.mediaUrl}`;
+        const el = document.getElementById(`msg-${m.id}`);
+        if (el) {
+            el.outerHTML = renderMessageBubble(m);
+            const container = document.querySelector('#chat-messages-area .profile-content-wrapper');
+            if (container) attachReplyHandlers(container);
+        }
+    }
+
     // 🔥 UPDATED PRESENCE LOGIC
     function handlePresenceEvent(p) {
         if (!p) return;
@@ -378,9 +409,10 @@
     async function sendReadReceipt(otherUserId, conversationId) {
         try {
              if (!conversationId) conversationId = getConversationId(userId, otherUserId);
+            // Watermark: the newest message from the other side that is on screen
+            const lastFromOther = [...currentMessages].reverse().find(m => m.sender === 'other');
+            if (!lastFromOther) return;
             if (stompClient && stompClient.connected) {
-                const lastFromOther = [...currentMessages].reverse().find(m => m.sender === 'other');
-                if (!lastFromOther) return;
                 const ack = {
                     messageId: String(lastFromOther.id),
                     readerId: userId,
@@ -391,8 +423,9 @@
             }
             await fetch(`${API_BASE}/api/chat/read`, {
                 method: 'POST',
+                credentials: 'include',
                 headers: {'Content-Type': 'application/json'},
-                body: JSON.stringify({ userId: userId, conversationId: conversationId })
+                body: JSON.stringify({ conversationId: conversationId, messageId: String(lastFromOther.id) })
             });
         } catch(e) { }
     }
@@ -889,6 +922,8 @@
         if (activeFriendshipPoll) clearInterval(activeFriendshipPoll);
 
         currentMessages = [];
+        olderCursor = null;
+        hasOlderHistory = false;
 
         // Await the render to ensure status is fetched before showing
         await renderChatWindow(selectedUser); 
@@ -904,23 +939,13 @@
 
         try {
             log(`Fetching history for ${recipientId}...`);
-            const res = await App.fetchData(`/api/messages/${recipientId}?senderId=${userId}`, {credentials: 'include'});
+            const res = await App.fetchData(`/api/messages/${recipientId}`, {credentials: 'include'});
             
             let messages = Array.isArray(res) ? res : (res.messages || []);
 
-            currentMessages = messages.map(msg => ({
-                id: msg.id,
-                sender: (String(msg.senderId) === String(userId)) ? 'me' : 'other',
-                content: msg.content,
-                image: msg.mediaUrl ? `${API_BASE}/${msg.mediaUrl}` : null, 
-                timestamp: formatTime(msg.timestamp), 
-                rawTimestamp: msg.timestamp, 
-                status: determineInitialStatus(msg, selectedUser),
-                // 🔥 MAP REPLY FIELDS
-                replyToMessageId: msg.replyToMessageId,
-                replyToSenderName: msg.replyToSenderName,
-                replyToContent: msg.replyToContent
-            }));
+            currentMessages = messages.map(toDisplayMessage);
+            olderCursor = res.olderCursor || null;
+            hasOlderHistory = !!res.hasOlder;
 
             const container = document.querySelector('#chat-messages-area .profile-content-wrapper');
             if (container) {
@@ -929,7 +954,12 @@
                 attachReplyHandlers(container);
 
                 const scrollArea = document.getElementById('chat-messages-area');
-                if(scrollArea) scrollArea.scrollTop = scrollArea.scrollHeight;
+                if(scrollArea) {
+                    scrollArea.scrollTop = scrollArea.scrollHeight;
+                    scrollArea.onscroll = () => {
+                        if (scrollArea.scrollTop < 80) loadOlderMessages(recipientId);
+                    };
+                }
                 
                 sendReadReceipt(recipientId, getConversationId(userId, recipientId));
             }
@@ -940,6 +970,51 @@
         }
     }
 
+    // Prepends the page above the oldest loaded message, keeping the view where it was
+    async function loadOlderMessages(recipientId) {
+        if (!hasOlderHistory || loadingOlder || !olderCursor) return;
+        loadingOlder = true;
+        try {
+            const res = await App.fetchData(
+                `/api/messages/${recipientId}?before=${encodeURIComponent(olderCursor)}`,
+                {credentials: 'include'});
+            if (!selectedUser || String(selectedUser.id) !== String(recipientId)) return;
+
+            currentMessages = (res.messages || []).map(toDisplayMessage).concat(currentMessages);
+            olderCursor = res.olderCursor || null;
+            hasOlderHistory = !!res.hasOlder;
+
+            const scrollArea = document.getElementById('chat-messages-area');
+            const container = document.querySelector('#chat-messages-area .profile-content-wrapper');
+            if (scrollArea && container) {
+                const fromBottom = scrollArea.scrollHeight - scrollArea.scrollTop;
+                container.innerHTML = renderMessagesHTML();
+                attachReplyHandlers(container);
+                scrollArea.scrollTop = scrollArea.scrollHeight - fromBottom;
+            }
+        } catch (e) {
+            console.error('Failed to load older messages:', e);
+        } finally {
+            loadingOlder = false;
+        }
+    }
+
+    function toDisplayMessage(msg) {
+        return {
+            id: msg.id,
+            sender: (String(msg.senderId) === String(userId)) ? 'me' : 'other',
+            content: msg.content,
+            image: msg.mediaUrl ? `${API_BASE}/${msg.mediaUrl}` : null, 
+            timestamp: formatTime(msg.timestamp), 
+            rawTimestamp: msg.timestamp, 
+            status: determineInitialStatus(msg, selectedUser),
+            // 🔥 MAP REPLY FIELDS
+            replyToMessageId: msg.replyToMessageId,
+            replyToSenderName: msg.replyToSenderName,
+            replyToContent: msg.replyToContent
+        };
+    }
+
     function determineInitialStatus(msg, recipient) {
         if (msg.status) return msg.status;
         if (String(msg.senderId) === String(userId)) {
@@ -1013,23 +1088,12 @@
 
             let mediaUrl = null;
             if (fileToSend) {
-                const formData = new FormData();
-                formData.append('file', fileToSend);
                 try {
-                    const res = await fetch(`${API_BASE}/api/posts/create-media`, {
-                        method: 'POST',
-                        credentials: 'include',
-                        body: formData
-                    });
-                    if(res.ok) {
-                        const data = await res.json();
-                        mediaUrl = data.url; 
-                    } else {
-                        showNotification('Image upload failed.', 'error');
-                        return;
-                    }
+                    // Resumable: a dropped connection only repeats the current chunk
+                    const data = await App.uploadMessageMedia(fileToSend, API_BASE);
+                    mediaUrl = data.url; 
                 } catch(err) {
-                    showNotification('Network error uploading image.', 'error');
+                    showNotification(err.status ? 'Image upload failed.' : 'Network error uploading image.', 'error');
                     return;
                 }
             }
@@ -0,0 +1,110 @@
+/**
+ * ChunkedUpload.js
+ * ----------------------------------------------------
+ * Resumable uploads (see UploadController):
+ * - POST /api/uploads {size, sha256} starts a session
+ * - PUT /api/uploads/{id}?offset=N sends one chunk at a time
+ * - a failed chunk is retried from the offset the server reports,
+ *   so flaky Wi-Fi repeats one chunk instead of the whole file
+ * The finished upload id is then handed to the endpoint that needs it.
+ * ----------------------------------------------------
+ */
+
+(function (App) {
+
+    const MAX_RETRIES = 5;
+
+    const sleep = (ms) => new Promise(resolve => setTimeout(resolve, ms));
+
+    async function sha256Hex(file) {
+        const digest = await crypto.subtle.digest('SHA-256', await file.arrayBuffer());
+        return Array.from(new Uint8Array(digest)).map(b => b.toString(16).padStart(2, '0')).join('');
+    }
+
+    async function errorOf(res) {
+        let message = `Upload failed (${res.status})`;
+        try {
+            const body = await res.json();
+            if (body.error) message = body.error;
+        } catch (e) { /* not JSON */ }
+        const err = new Error(message);
+        err.status = res.status;
+        return err;
+    }
+
+    // Resolves with the upload id once every byte is on the server
+    App.uploadResumable = async (file, apiBase = '') => {
+        // crypto.subtle only exists on https / localhost
+        if (!window.crypto || !crypto.subtle) {
+            const err = new Error('Resumable uploads are not available here');
+            err.unsupported = true;
+            throw err;
+        }
+
+        const init = await fetch(`${apiBase}/api/uploads`, {
+            method: 'POST',
+            credentials: 'include',
+            headers: { 'Content-Type': 'application/json' },
+            body: JSON.stringify({ size: file.size, sha256: await sha256Hex(file) })
+        });
+        if (!init.ok) throw await errorOf(init);
+        const session = await init.json();
+        const chunkUrl = `${apiBase}/api/uploads/${encodeURIComponent(session.uploadId)}`;
+
+        let offset = 0;
+        let failures = 0;
+        while (offset < file.size) {
+            try {
+                const res = await fetch(`${chunkUrl}?offset=${offset}`, {
+                    method: 'PUT',
+                    credentials: 'include',
+                    headers: { 'Content-Type': 'application/octet-stream' },
+                    body: file.slice(offset, offset + session.chunkSize)
+                });
+                // 409: the server has a different offset than we thought, continue from there
+                if (res.ok || res.status === 409) {
+                    offset = (await res.json()).offset;
+                    failures = 0;
+                    continue;
+                }
+                const err = await errorOf(res);
+                err.fatal = res.status < 500;
+                throw err;
+            } catch (err) {
+                if (err.fatal || ++failures > MAX_RETRIES) throw err;
+                await sleep(500 * 2 ** failures);
+                try {
+                    const status = await fetch(chunkUrl, { credentials: 'include' });
+                    if (status.ok) offset = (await status.json()).offset;
+                } catch (e) { /* still offline: retry the same chunk */ }
+            }
+        }
+        return session.uploadId;
+    };
+
+    // Chat / group / community images: resumable when possible, one multipart request otherwise
+    App.uploadMessageMedia = async (file, apiBase = '') => {
+        let res;
+        try {
+            const uploadId = await App.uploadResumable(file, apiBase);
+            res = await fetch(`${apiBase}/api/posts/create-media/chunked`, {
+                method: 'POST',
+                credentials: 'include',
+                headers: { 'Content-Type': 'application/json' },
+                body: JSON.stringify({ uploadId })
+            });
+        } catch (err) {
+            if (!err.unsupported) throw err;
+            const formData = new FormData();
+            formData.append('file', file);
+            res = await fetch(`${apiBase}/api/posts/create-media`, {
+                method: 'POST',
+                credentials: 'include',
+                body: formData
+            });
+        }
+        if (!res.ok) throw await errorOf(res);
+        return res.json();
+    };
+
+})(window.App = window.App || {});
@@ -157,7 +157,7 @@
                 }
             }
 
-            if (evt.type === 'NEW_POST' || evt.type === 'POST_CREATED') {
+            if (evt.type === 'NEW_POST' || evt.type === 'POST_CREATED' || evt.type === 'MEDIA_READY') {
                  // Re-fetch to ensure order and consistency (safest approach)
                  const feedContainer = document.getElementById('community-feed-window');
                  if(feedContainer) fetchCommunityMessages(feedContainer, lastFetchToken);
@@ -628,14 +628,9 @@
                 
                 let mediaUrl = null;
                 if (imageFileToUpload) {
-                    const formData = new FormData();
-                    formData.append('file', imageFileToUpload);
                     try {
-                        const upRes = await fetch(`${API_BASE}/api/posts/create-media`, { method: 'POST', credentials: 'include', body: formData });
-                        if(upRes.ok) {
-                            const data = await upRes.json();
-                            mediaUrl = data.url; // Relative Path
-                        }
+                        const data = await App.uploadMessageMedia(imageFileToUpload, API_BASE);
+                        mediaUrl = data.url; // Relative Path
                     } catch(e) { showNotification("Image upload failed", "error"); return; }
                 }
                 
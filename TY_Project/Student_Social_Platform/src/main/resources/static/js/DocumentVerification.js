@@ -54,6 +54,30 @@ window.App = window.App || {};
         return `${window.location.origin}/${cleanUrl}`;
     };
 
+    // --- Helper: Upload both documents (resumable, multipart where unavailable) ---
+    async function submitDocuments(idFile, receiptFile) {
+        try {
+            const idCardUploadId = await App.uploadResumable(idFile);
+            const receiptUploadId = await App.uploadResumable(receiptFile);
+            return await fetch('/api/my-profile/upload-verification-docs/chunked', {
+                method: 'POST',
+                credentials: 'include',
+                headers: { 'Content-Type': 'application/json' },
+                body: JSON.stringify({ idCardUploadId, receiptUploadId })
+            });
+        } catch (e) {
+            if (!e.unsupported) throw e;
+            const formData = new FormData();
+            formData.append('idCard', idFile);
+            formData.append('receipt', receiptFile);
+            return fetch('/api/my-profile/upload-verification-docs', {
+                method: 'POST',
+                credentials: 'include',
+                body: formData
+            });
+        }
+    }
+
     // --- Helper: Render Preview Block ---
     function renderDocumentPreviewBlock(title, src, isVerified, isRejected = false) {
         const primaryColor = isVerified ? '#10b981' : (isRejected ? '#dc2626' : '#2563eb');
@@ -308,16 +332,8 @@ window.App = window.App || {};
                     submitBtn.textContent = 'Uploading...';
                     submitBtn.disabled = true;
 
-                    const formData = new FormData();
-                    formData.append('idCard', idFile);
-                    formData.append('receipt', receiptFile);
-
                     try {
-                        const res = await fetch('/api/my-profile/upload-verification-docs', {
-                            method: 'POST',
-                            credentials: 'include',
-                            body: formData
-                        });
+                        const res = await submitDocuments(idFile, receiptFile);
 
                         if (res.ok) {
                             // 🔥 OPTIMISTIC UPDATE: Set local state to PENDING
@@ -347,7 +363,7 @@ window.App = window.App || {};
                             submitBtn.textContent = 'Submit for Verification';
                         }
                     } catch (e) {
-                        showNotification("Network error", "error");
+                        showNotification(e.status ? "Upload failed: " + e.message : "Network error", "error");
                         submitBtn.disabled = false;
                         submitBtn.textContent = 'Submit for Verification';
                     }
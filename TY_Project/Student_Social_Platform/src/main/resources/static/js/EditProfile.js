@@ -61,7 +61,8 @@ window.App = window.App || {};
         // --- DYNAMIC DEFAULT AVATAR LOGIC (REINFORCED) ---
         // Ensure we always have a valid name-based avatar URL available
         const userNameForAvatar = data.username ? data.username.replace('@', '').trim() : 'User';
-        const DEFAULT_AVATAR = `https://ui-avatars.com/api/?name=${encodeURIComponent(userNameForAvatar)}&background=random&size=200&bold=true`;
+        // Served by AvatarController (same URL the server assigns at registration)
+        const DEFAULT_AVATAR = `avatars/v1/${encodeURIComponent(userNameForAvatar)}.svg`;
         
         // The generic man image we want to avoid when deleting
         const GENERIC_PLACEHOLDER = 'https://images.unsplash.com/photo-1535713875002-d1d0cf377fde?w=400';
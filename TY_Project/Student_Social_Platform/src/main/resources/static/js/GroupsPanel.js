@@ -90,6 +90,18 @@
       });
   }
 
+  // Image renditions finished for a message in this group: re-render with the new URL
+  function subscribeGroupEvents(groupId) {
+      if (!stompClient || !stompClient.connected) return;
+
+      stompClient.subscribe(`/topic/group/${groupId}`, msg => {
+          const evt = JSON.parse(msg.body || '{}');
+          if (evt.type !== 'MEDIA_READY' || !selectedGroup || String(selectedGroup.id) !== String(groupId)) return;
+          const chatContainer = document.getElementById('group-chat-window');
+          if (chatContainer) loadAndRenderMessages(groupId, chatContainer, true);
+      });
+  }
+
   function sendGroupTyping(isTyping) {
       if (!stompClient || !stompClient.connected || !selectedGroup) return;
 
@@ -485,6 +497,7 @@
 
     // 🔥 SUBSCRIBE TO TYPING
     subscribeGroupTyping(selectedGroup.id);
+    subscribeGroupEvents(selectedGroup.id);
     if (!typingCleanupInterval) {
         typingCleanupInterval = setInterval(cleanupTypingState, 1000);
     }
@@ -630,14 +643,10 @@
               
               let mediaUrl = null;
               if (imageFileToUpload) {
-                  const formData = new FormData();
-                  formData.append('file', imageFileToUpload);
                   try {
-                      const upRes = await fetch(`${API_BASE}/api/posts/create-media`, { method: 'POST', credentials: 'include', body: formData });
-                      if(upRes.ok) {
-                          const data = await upRes.json();
-                          mediaUrl = data.url ? `${API_BASE}/${data.url}` : null;
-                      }
+                      const data = await App.uploadMessageMedia(imageFileToUpload, API_BASE);
+                      // Relative, as stored: the server matches it when the renditions are ready
+                      mediaUrl = data.url || null;
                   } catch(e) { showNotification("Image upload failed", "error"); return; }
               }
               
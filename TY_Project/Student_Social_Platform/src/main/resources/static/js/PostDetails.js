@@ -219,54 +219,72 @@
             footerAvatar.src = userProfile.avatarUrl || 'https://api.dicebear.com/7.x/avataaars/svg?seed=User';
         }
 
-        // Recursive Reply Loader
-        const loadRepliesRecursive = async (commentId) => {
+        // Shows a comment's replies toggle; 'loaded' means its container already holds every reply
+        const setupRepliesToggle = (commentId, replyCount, loaded) => {
+            const containerId = `replies-${commentId}`;
+            const toggleBtn = document.getElementById(`btn-${containerId}`);
+            if (!toggleBtn || replyCount <= 0) return;
+
+            toggleBtn.style.display = 'flex';
+            toggleBtn.dataset.loaded = loaded ? 'true' : 'false';
+            toggleBtn.querySelector('.btn-text').textContent = expandedThreads.has(containerId)
+                ? 'Hide replies'
+                : `View ${replyCount} replies`;
+        };
+
+        // Renders replies (each carrying its own replyCount) into their parent's container
+        const renderReplies = (commentId, replies, replyCount) => {
+            const container = document.getElementById(`replies-${commentId}`);
+            if (!container) return;
+
+            container.innerHTML = replies.map(r => buildCommentHTML(r, true)).join('');
+            replies.forEach(r => setupRepliesToggle(r.id, r.replyCount || 0, false));
+            setupRepliesToggle(commentId, replyCount, replies.length >= replyCount);
+        };
+
+        // Full reply list for one comment, fetched the first time its thread is expanded
+        const loadAllReplies = async (commentId) => {
             try {
                 const replies = await App.fetchData(`/api/comments/${commentId}/replies`);
-                if (replies && replies.length > 0) {
-                    const containerId = `replies-${commentId}`;
-                    const container = document.getElementById(containerId);
-                    const toggleBtn = document.getElementById(`btn-${containerId}`);
-                    
-                    if (container && toggleBtn) {
-                        const newHtml = replies.map(r => buildCommentHTML(r, true)).join('');
-                        if (container.innerHTML !== newHtml) {
-                            container.innerHTML = newHtml;
-                            toggleBtn.style.display = 'flex';
-                            
-                            const isExpanded = expandedThreads.has(containerId);
-                            toggleBtn.querySelector('.btn-text').textContent = isExpanded 
-                                ? 'Hide replies' 
-                                : `View ${replies.length} replies`;
-                            
-                            replies.forEach(r => loadRepliesRecursive(r.id));
-                        }
-                    }
-                }
-            } catch (e) { }
+                if (replies) renderReplies(commentId, replies, replies.length);
+            } catch (e) { console.error("Replies failed", e); }
         };
 
         const commentsList = panel.querySelector('#pd-comments-list');
-        
-        const loadComments = async () => {
+        let commentsCursor = null;
+
+        // One request per page: top-level comments + reply previews + reply counts
+        const loadComments = async (cursor) => {
             try {
-                const comments = await App.fetchData(`/api/comments/post/${postData.id}`);
-                
-                if (!comments || comments.length === 0) {
+                const url = `/api/comments/post/${postData.id}/thread` + (cursor ? `?cursor=${encodeURIComponent(cursor)}` : '');
+                const page = await App.fetchData(url);
+                const threads = page?.comments || [];
+
+                const oldMore = commentsList.querySelector('.pd-load-more-comments');
+                if (oldMore) oldMore.remove();
+
+                if (!cursor && threads.length === 0) {
                     if (commentsList.innerHTML.includes('Loading')) {
                         commentsList.innerHTML = '<p style="text-align:center; color:#9ca3af; padding:2rem;">No comments yet.</p>';
                     }
                     return;
                 }
 
-                commentsList.innerHTML = comments.map(c => buildCommentHTML(c)).join('');
-                comments.forEach(c => loadRepliesRecursive(c.id));
+                const html = threads.map(t => buildCommentHTML(t)).join('');
+                if (cursor) commentsList.insertAdjacentHTML('beforeend', html);
+                else commentsList.innerHTML = html;
+                threads.forEach(t => renderReplies(t.id, t.replies || [], t.replyCount || 0));
 
-            } catch (err) { console.error("Poll failed", err); }
+                commentsCursor = page.hasMore ? page.nextCursor : null;
+                if (commentsCursor) {
+                    commentsList.insertAdjacentHTML('beforeend',
+                        '<button class="view-replies-btn pd-load-more-comments" style="display:flex; margin:1rem auto;">Load more comments</button>');
+                }
+            } catch (err) { console.error("Comments failed", err); }
         };
         
         commentsList.innerHTML = '<div style="padding:20px; text-align:center; color:#888;">Loading comments...</div>';
-        await loadComments();
+        await loadComments(null);
 
         // Input Logic
         const input = panel.querySelector('#pd-reply-input');
@@ -284,6 +302,11 @@
                 return;
             }
 
+            if (e.target.closest('.pd-load-more-comments')) {
+                if (commentsCursor) loadComments(commentsCursor);
+                return;
+            }
+
             const btnToggle = e.target.closest('.js-toggle-replies');
             if (btnToggle) {
                 const targetId = btnToggle.dataset.target;
@@ -294,6 +317,10 @@
                 if (container) {
                     const isHidden = container.style.display === 'none';
                     if (isHidden) {
+                        if (btnToggle.dataset.loaded === 'false') {
+                            btnToggle.dataset.loaded = 'true';
+                            loadAllReplies(targetId.substring('replies-'.length));
+                        }
                         container.style.display = 'block';
                         expandedThreads.add(targetId);
                         icon.style.transform = 'rotate(180deg)';
@@ -10,6 +10,12 @@
     let stompClient = null;
     let wsConnected = false;
 
+    // 🔥 KEYSET PAGINATION STATE ("epochMillis_id" cursors from /api/posts/feed)
+    let nextCursor = null;    // older page
+    let newestCursor = null;  // top of what is rendered
+    let loadingMore = false;
+    let moreObserver = null;
+
     // --- 1. Templates & Helpers ---
     
     async function loadHtml(url) {
@@ -102,8 +108,8 @@
     }
 
     function mapBackendPostToFrontend(post, myId) {
-        const myIdNum = parseInt(myId);
-        const isLiked = post.likes && post.likes.includes(myIdNum);
+        // Feed pages carry a per-viewer flag; realtime POST_CREATED posts are never liked yet
+        const isLiked = post.likedByMe === true;
         
         let imageSrc = null;
         if (post.mediaUrl && post.mediaUrl !== 'null') {
@@ -142,17 +148,25 @@
 
         stompClient.connect({}, () => {
             wsConnected = true;
+            // Pick up anything posted between the feed fetch and the subscription
+            catchUpNewer();
             stompClient.subscribe('/topic/feed', msg => {
                 try {
                     const evt = JSON.parse(msg.body);
                     
-                    // 🔥 Handle Comment Count Update (New Feature)
-                    if (evt.type === 'COMMENT_ADDED') {
-                        const postId = evt.postId || evt.post?.id;
-                        const count = evt.commentCount ?? evt.post?.commentCount;
-                        if (postId && count != null) {
-                            updateCommentCount(postId, count);
-                        }
+                    // 🔥 Like/comment counts arrive batched: {deltas: [{postId, likeCount?, commentCount?}]}
+                    if (evt.type === 'POST_DELTAS') {
+                        (evt.deltas || []).forEach(d => {
+                            if (!d.postId) return;
+                            if (d.likeCount != null) updateLikeCount(d.postId, d.likeCount);
+                            if (d.commentCount != null) updateCommentCount(d.postId, d.commentCount);
+                        });
+                        return;
+                    }
+
+                    // 🔥 Feed-size rendition finished: swap it in for the original
+                    if (evt.type === 'MEDIA_READY') {
+                        updateMedia(evt.postId, evt.mediaUrl);
                         return;
                     }
 
@@ -164,6 +178,104 @@
         });
     }
 
+    function cursorOf(rawPost) {
+        return `${Date.parse(rawPost.createdAt)}_${rawPost.id}`;
+    }
+
+    // 🔥 "Newer than" mode: only fetch posts above the current top of the feed
+    async function catchUpNewer() {
+        if (!newestCursor) return;
+        try {
+            const page = await App.fetchData(`/api/posts/feed?newerThan=${encodeURIComponent(newestCursor)}`);
+            if (!page || !page.posts || page.posts.length === 0) return;
+
+            const wrapper = document.querySelector('.post-feed-wrapper');
+            if (!wrapper) return;
+
+            const myId = currentUserId || await getCurrentUserId();
+            // Newest first: prepend in reverse so the order is preserved
+            page.posts.slice().reverse().forEach(rawPost => {
+                if (feedMap.has(rawPost.id)) return;
+                const post = mapBackendPostToFrontend(rawPost, myId);
+                feedMap.set(post.id, post);
+                wrapper.prepend(createPostElement(post, myId));
+            });
+            newestCursor = page.newestCursor || newestCursor;
+        } catch (e) { console.error('Feed catch-up failed', e); }
+    }
+
+    // 🔥 Older pages, appended when the sentinel scrolls into view
+    async function loadMorePosts(panel) {
+        if (loadingMore || !nextCursor) return;
+        loadingMore = true;
+        try {
+            const page = await App.fetchData(`/api/posts/feed?cursor=${encodeURIComponent(nextCursor)}`);
+            const wrapper = panel.querySelector('.post-feed-wrapper');
+            const myId = currentUserId || await getCurrentUserId();
+
+            (page.posts || []).forEach(rawPost => {
+                if (feedMap.has(rawPost.id)) return;
+                const post = mapBackendPostToFrontend(rawPost, myId);
+                feedMap.set(post.id, post);
+                if (wrapper) wrapper.appendChild(createPostElement(post, myId));
+            });
+
+            nextCursor = page.hasMore ? page.nextCursor : null;
+            if (!nextCursor) removeLoadMoreSentinel(panel);
+        } catch (e) {
+            console.error('Load more failed', e);
+        } finally {
+            loadingMore = false;
+        }
+    }
+
+    function setupLoadMoreSentinel(panel) {
+        removeLoadMoreSentinel(panel);
+        if (!nextCursor) return;
+
+        const sentinel = document.createElement('div');
+        sentinel.className = 'feed-load-more';
+        sentinel.style.cssText = 'text-align:center; padding:1rem; color:#888;';
+        sentinel.textContent = 'Loading more...';
+        panel.appendChild(sentinel);
+
+        if ('IntersectionObserver' in window) {
+            moreObserver = new IntersectionObserver(entries => {
+                if (entries.some(e => e.isIntersecting)) loadMorePosts(panel);
+            }, { rootMargin: '400px' });
+            moreObserver.observe(sentinel);
+        } else {
+            sentinel.textContent = 'Load more';
+            sentinel.style.cursor = 'pointer';
+            sentinel.addEventListener('click', () => loadMorePosts(panel));
+        }
+    }
+
+    function removeLoadMoreSentinel(panel) {
+        if (moreObserver) { moreObserver.disconnect(); moreObserver = null; }
+        const old = panel.querySelector('.feed-load-more');
+        if (old) old.remove();
+    }
+
+    // 🔥 Helper to update like count in DOM and State
+    function updateLikeCount(postId, count) {
+        if (feedMap.has(postId)) {
+            feedMap.get(postId).likes = count;
+        }
+        const el = document.querySelector(`.post-card[data-post-id="${postId}"] .post-likes-count`);
+        if (el) el.textContent = count;
+    }
+
+    function updateMedia(postId, mediaUrl) {
+        if (!postId || !mediaUrl) return;
+        const src = mediaUrl.startsWith('http') ? mediaUrl : `${API_BASE}/${mediaUrl}`;
+        if (feedMap.has(postId)) {
+            feedMap.get(postId).image = src;
+        }
+        const img = document.querySelector(`.post-card[data-post-id="${postId}"] .post-image`);
+        if (img) img.src = src;
+    }
+
     // 🔥 Helper to update comment count in DOM and State
     function updateCommentCount(postId, count) {
         if (feedMap.has(postId)) {
@@ -183,6 +295,7 @@
             // Avoid duplicate if already present
             if (feedMap.has(p.id)) return;
             feedMap.set(p.id, p);
+            newestCursor = cursorOf(evt.post);
             
             // Auto Paste: Render and Prepend to feed
             const wrapper = document.querySelector('.post-feed-wrapper');
@@ -191,17 +304,6 @@
                 wrapper.prepend(card);
             }
         }
-
-        if (evt.type === 'POST_LIKED') {
-            // Update map
-            if (feedMap.has(p.id)) {
-                const existing = feedMap.get(p.id);
-                existing.likes = p.likes; // Update count
-            }
-            // Update DOM directly
-            const countEl = document.querySelector(`.post-card[data-post-id="${p.id}"] .post-likes-count`);
-            if (countEl) countEl.textContent = p.likes;
-        }
     }
 
     // --- 2. Create Post Modal Logic ---
@@ -383,6 +485,13 @@
                         post.likes = post.isLiked ? post.likes + 1 : post.likes - 1;
                         if (post.isLiked) likeBtn.classList.add('liked'); else likeBtn.classList.remove('liked');
                         likesCount.textContent = post.likes;
+                    } else {
+                        // Server is authoritative: {postId, likeCount, liked}
+                        const result = await likeRes.json();
+                        post.isLiked = result.liked;
+                        post.likes = result.likeCount;
+                        if (post.isLiked) likeBtn.classList.add('liked'); else likeBtn.classList.remove('liked');
+                        likesCount.textContent = post.likes;
                     }
                 } catch(err) { console.error("Like failed", err); }
             });
@@ -466,11 +575,14 @@
         connectFeedSocket();
 
         try {
-            const res = await App.fetchData('/api/posts/feed');
+            const page = await App.fetchData('/api/posts/feed');
+            const res = (page && page.posts) || [];
             panel.innerHTML = ''; 
             
             // Clear map on refresh
             feedMap.clear();
+            nextCursor = page && page.hasMore ? page.nextCursor : null;
+            newestCursor = page ? page.newestCursor : null;
 
             if (!res || res.length === 0) {
                 panel.innerHTML = '<p class="text-secondary" style="text-align:center; padding: 2rem;">No posts yet. Be the first to share something!</p>';
@@ -489,6 +601,7 @@
             });
 
             panel.appendChild(feedWrapper);
+            setupLoadMoreSentinel(panel);
             setupFab();
 
         } catch (e) {
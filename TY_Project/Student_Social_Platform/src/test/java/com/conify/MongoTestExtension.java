@@ -0,0 +1,85 @@
+package com.conify;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands each test a {@link MongoTemplate} on its own empty database, dropped afterwards.
+ *
+ * By default the database lives in an in-process mongo-java-server started once per
+ * test run, so Mongo-backed tests run in every build. -Dtest.mongodb.uri=... points
+ * the same tests at a real MongoDB instead.
+ *
+ * Usage: {@code @ExtendWith(MongoTestExtension.class)} and take a MongoTemplate
+ * parameter in the @BeforeEach method.
+ */
+public class MongoTestExtension implements BeforeEachCallback, AfterEachCallback, ParameterResolver {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(MongoTestExtension.class);
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    // One server + client for the whole run; closed by JUnit when the root context ends
+    private static final class SharedMongo implements ExtensionContext.Store.CloseableResource {
+        final MongoServer server;
+        final MongoClient client;
+
+        SharedMongo() {
+            String uri = System.getProperty("test.mongodb.uri");
+            if (uri == null || uri.isBlank()) {
+                server = new MongoServer(new MemoryBackend());
+                InetSocketAddress address = server.bind();
+                uri = "mongodb://" + address.getHostString() + ":" + address.getPort();
+            } else {
+                server = null;
+            }
+            client = MongoClients.create(MongoClientSettings.builder()
+                    .applyConnectionString(new ConnectionString(uri))
+                    .applyToClusterSettings(b -> b.serverSelectionTimeout(5, TimeUnit.SECONDS))
+                    .build());
+        }
+
+        @Override
+        public void close() {
+            client.close();
+            if (server != null) server.shutdownNow();
+        }
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        SharedMongo mongo = context.getRoot().getStore(NAMESPACE)
+                .getOrComputeIfAbsent(SharedMongo.class, k -> new SharedMongo(), SharedMongo.class);
+        MongoTemplate template = new MongoTemplate(mongo.client, "conify_test_" + DATABASES.incrementAndGet());
+        context.getStore(NAMESPACE).put(MongoTemplate.class, template);
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        MongoTemplate template = context.getStore(NAMESPACE).remove(MongoTemplate.class, MongoTemplate.class);
+        if (template != null) template.getDb().drop();
+    }
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return parameterContext.getParameter().getType() == MongoTemplate.class;
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return extensionContext.getStore(NAMESPACE).get(MongoTemplate.class, MongoTemplate.class);
+    }
+}
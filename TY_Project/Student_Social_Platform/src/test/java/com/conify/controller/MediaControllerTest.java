@@ -0,0 +1,99 @@
+package com.conify.controller;
+
+import com.conify.service.InMemoryMediaStore;
+import com.conify.service.MediaBlobStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class MediaControllerTest {
+
+    private static final String HASH = "ab".repeat(32);
+    private static final String BLOB = "/uploads/media/ab/ab/" + HASH + ".png";
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        InMemoryMediaStore mediaStore = new InMemoryMediaStore();
+        mediaStore.write("media/ab/ab/" + HASH + ".png", "0123456789".getBytes(StandardCharsets.US_ASCII));
+        mediaStore.write("media/private/ab/ab/" + HASH + ".png", "id card".getBytes(StandardCharsets.US_ASCII));
+        mediaStore.write("legacy.jpg", "legacy".getBytes(StandardCharsets.US_ASCII));
+
+        MediaController controller = new MediaController();
+        ReflectionTestUtils.setField(controller, "mediaBlobStore", new MediaBlobStore());
+        ReflectionTestUtils.setField(controller, "mediaStore", mediaStore);
+        ReflectionTestUtils.setField(controller, "meterRegistry", new SimpleMeterRegistry());
+        mvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void blobIsServedImmutableWithItsNameAsETag() throws Exception {
+        mvc.perform(get(BLOB))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + HASH + ".png\""))
+                .andExpect(header().string("Cache-Control", "public, max-age=31536000, immutable"))
+                .andExpect(header().string("Content-Type", "image/png"))
+                .andExpect(content().string("0123456789"));
+    }
+
+    @Test
+    void matchingETagAnswers304() throws Exception {
+        mvc.perform(get(BLOB).header("If-None-Match", "\"other\", \"" + HASH + ".png\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void byteRangesAnswer206() throws Exception {
+        mvc.perform(get(BLOB).header("Range", "bytes=2-4"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 2-4/10"))
+                .andExpect(content().string("234"));
+
+        mvc.perform(get(BLOB).header("Range", "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("789"));
+
+        mvc.perform(get(BLOB).header("Range", "bytes=20-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string("Content-Range", "bytes */10"));
+    }
+
+    @Test
+    void staleIfRangeGetsTheWholeFile() throws Exception {
+        mvc.perform(get(BLOB).header("Range", "bytes=2-4").header("If-Range", "\"old\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string("0123456789"));
+    }
+
+    @Test
+    void privateBlobsAreNeverCached() throws Exception {
+        mvc.perform(get("/uploads/media/private/ab/ab/" + HASH + ".png"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "private, no-store"))
+                .andExpect(content().string("id card"));
+    }
+
+    @Test
+    void nonBlobUploadsRevalidate() throws Exception {
+        mvc.perform(get("/uploads/legacy.jpg"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "public, max-age=86400"));
+    }
+
+    @Test
+    void pathsOutsideTheUploadDirAreNotFound() throws Exception {
+        mvc.perform(get("/uploads/%2e%2e/secret.txt")).andExpect(status().isNotFound());
+        mvc.perform(get("/uploads/.staging/upload-1.part")).andExpect(status().isNotFound());
+        mvc.perform(get("/uploads/missing.jpg")).andExpect(status().isNotFound());
+    }
+}
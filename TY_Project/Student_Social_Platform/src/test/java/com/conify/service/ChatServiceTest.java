@@ -0,0 +1,207 @@
+package com.conify.service;
+
+import com.conify.MongoTestExtension;
+import com.conify.dto.ChatHistoryPage;
+import com.conify.dto.ReadReceiptEvent;
+import com.conify.model.mongo.ChatMessage;
+import com.conify.model.mongo.Conversation;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Chat history windows and read watermarks against MongoDB (see {@link MongoTestExtension}).
+ */
+@ExtendWith(MongoTestExtension.class)
+class ChatServiceTest {
+
+    private static final long ME = 1L;
+    private static final long OTHER = 2L;
+
+    private MongoTemplate mongoTemplate;
+    private ChatService service;
+    private SimpMessagingTemplate messagingTemplate;
+
+    @BeforeEach
+    void setUp(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+
+        service = new ChatService();
+        ReflectionTestUtils.setField(service, "historyPageSize", 3);
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "messagingTemplate", messagingTemplate);
+    }
+
+    @Test
+    void pagesBackwardAndForwardWithoutGapsOrDuplicates() {
+        Instant t = Instant.parse("2024-01-01T00:00:00Z");
+        // m0..m6; m3 and m4 share a timestamp so the _id tie-break matters
+        for (int i = 0; i < 7; i++) {
+            save("m" + i, i % 2 == 0 ? ME : OTHER, t.plusSeconds(i == 4 ? 3 : i), ChatMessage.MessageStatus.READ);
+        }
+
+        ChatHistoryPage latest = service.getHistory(ME, OTHER, null, null, null);
+        assertEquals(List.of("m4", "m5", "m6"), contents(latest));
+        assertTrue(latest.isHasOlder());
+        assertFalse(latest.isHasNewer());
+
+        ChatHistoryPage older = service.getHistory(ME, OTHER, latest.getOlderCursor(), null, null);
+        assertEquals(List.of("m1", "m2", "m3"), contents(older));
+        assertTrue(older.isHasOlder());
+        assertTrue(older.isHasNewer());
+
+        ChatHistoryPage oldest = service.getHistory(ME, OTHER, older.getOlderCursor(), null, null);
+        assertEquals(List.of("m0"), contents(oldest));
+        assertFalse(oldest.isHasOlder());
+
+        ChatHistoryPage newer = service.getHistory(OTHER, ME, null, oldest.getNewerCursor(), 4);
+        assertEquals(List.of("m1", "m2", "m3", "m4"), contents(newer));
+        assertTrue(newer.isHasNewer());
+        assertNull(newer.getFirstUnreadId());
+
+        ChatHistoryPage caughtUp = service.getHistory(ME, OTHER, null, latest.getNewerCursor(), null);
+        assertTrue(caughtUp.getMessages().isEmpty());
+        assertEquals(latest.getNewerCursor(), caughtUp.getNewerCursor());
+        assertFalse(caughtUp.isHasNewer());
+    }
+
+    @Test
+    void firstUnreadIsTheOldestMessageToTheReaderNotYetRead() {
+        Instant t = Instant.parse("2024-01-01T00:00:00Z");
+        save("read", OTHER, t, ChatMessage.MessageStatus.READ);
+        save("mine", ME, t.plusSeconds(1), ChatMessage.MessageStatus.DELIVERED);
+        ChatMessage firstUnread = save("unread-1", OTHER, t.plusSeconds(2), ChatMessage.MessageStatus.DELIVERED);
+        save("unread-2", OTHER, t.plusSeconds(3), ChatMessage.MessageStatus.SENT);
+
+        assertEquals(firstUnread.getId(), service.getHistory(ME, OTHER, null, null, null).getFirstUnreadId());
+        // For the other participant only "mine" is unread
+        assertNotNull(service.getHistory(OTHER, ME, null, null, null).getFirstUnreadId());
+        assertThrows(IllegalArgumentException.class, () -> service.getHistory(ME, OTHER, "nope", null, null));
+    }
+
+    @Test
+    void watermarkMarksEarlierMessagesAndDecrementsUnread() {
+        Instant t = Instant.parse("2024-01-01T00:00:00Z");
+        ChatMessage first = send(OTHER, t);
+        ChatMessage second = send(OTHER, t.plusSeconds(1));
+        send(ME, t.plusSeconds(2));
+        ChatMessage third = send(OTHER, t.plusSeconds(3));
+
+        ReadReceiptEvent receipt = service.markRead(ME, OTHER, second.getId());
+        assertEquals(2, receipt.getCount());
+        assertEquals(second.getId(), receipt.getMessageId());
+        verify(messagingTemplate).convertAndSendToUser(eq(String.valueOf(OTHER)), eq("/queue/read-receipts"), eq(receipt));
+
+        Conversation conv = mongoTemplate.findById(ChatService.conversationId(ME, OTHER), Conversation.class);
+        assertEquals(1, conv.getUnreadCounts().get(String.valueOf(ME)));
+        assertEquals(1, conv.getUnreadCounts().get(String.valueOf(OTHER)));
+        assertEquals(second.getId(), conv.getLastReadMessageIds().get(String.valueOf(ME)));
+        assertEquals(ChatMessage.MessageStatus.READ, mongoTemplate.findById(first.getId(), ChatMessage.class).getStatus());
+        assertEquals(third.getId(), service.getHistory(ME, OTHER, null, null, null).getFirstUnreadId());
+
+        // Replaying an old watermark changes nothing and sends nothing
+        assertNull(service.markRead(ME, OTHER, first.getId()));
+        assertEquals(second.getId(), mongoTemplate.findById(conv.getId(), Conversation.class)
+                .getLastReadMessageIds().get(String.valueOf(ME)));
+
+        // No message id: read up to the latest
+        assertEquals(1, service.markRead(ME, OTHER, null).getCount());
+        assertEquals(0, mongoTemplate.findById(conv.getId(), Conversation.class).getUnreadCounts().get(String.valueOf(ME)));
+        verify(messagingTemplate, times(2)).convertAndSendToUser(anyString(), anyString(), any(Object.class));
+
+        assertThrows(IllegalArgumentException.class, () -> service.markRead(ME, 3L, third.getId()));
+    }
+
+    @Test
+    void readsInterleavedWithSendsNeitherDropNorDoubleCountMessages() {
+        Instant t = Instant.parse("2024-01-01T00:00:00Z");
+        send(OTHER, t);
+
+        // Counted but not yet saved when the read runs: the read must leave it on the badge
+        ChatMessage inFlight = message("in flight", OTHER, t.plusSeconds(1), ChatMessage.MessageStatus.DELIVERED);
+        service.messageSent(inFlight);
+        assertEquals(1, service.markRead(ME, OTHER, null).getCount());
+        assertEquals(1, unread(ME));
+
+        // Saved after the read: the next read takes it off exactly once
+        mongoTemplate.insert(inFlight);
+        send(OTHER, t.plusSeconds(2));
+        assertEquals(2, unread(ME));
+        assertEquals(2, service.markRead(ME, OTHER, null).getCount());
+        assertEquals(0, unread(ME));
+
+        // A send that fails to save gives its count back
+        ChatMessage dropped = message("dropped", OTHER, t.plusSeconds(3), ChatMessage.MessageStatus.DELIVERED);
+        service.messageSent(dropped);
+        service.messageDropped(dropped);
+        assertEquals(0, unread(ME));
+        assertNull(service.markRead(ME, OTHER, null));
+    }
+
+    @Test
+    void recountOnlyLowersInflatedLegacyCounters() {
+        Instant t = Instant.parse("2024-01-01T00:00:00Z");
+        send(OTHER, t);
+        send(OTHER, t.plusSeconds(1));
+        send(ME, t.plusSeconds(2));
+        String conversationId = ChatService.conversationId(ME, OTHER);
+        // Inflated counter from before read receipts existed
+        mongoTemplate.getCollection("conversations").updateOne(
+                new Document("_id", conversationId),
+                new Document("$set", new Document("unreadCounts." + ME, 40)));
+
+        assertTrue(service.recountUnread(conversationId, ME));
+        assertEquals(2, unread(ME));
+        assertTrue(service.recountUnread(conversationId, OTHER));
+        assertEquals(1, unread(OTHER));
+
+        // Reads then decrement the repaired counter down to exactly zero
+        assertEquals(2, service.markRead(ME, OTHER, null).getCount());
+        assertEquals(0, unread(ME));
+    }
+
+    private int unread(long userId) {
+        return mongoTemplate.findById(ChatService.conversationId(ME, OTHER), Conversation.class)
+                .getUnreadCounts().get(String.valueOf(userId));
+    }
+
+    // Same order as ChatController: counted first, then saved
+    private ChatMessage send(long senderId, Instant timestamp) {
+        ChatMessage m = message("from " + senderId, senderId, timestamp, ChatMessage.MessageStatus.DELIVERED);
+        service.messageSent(m);
+        return mongoTemplate.insert(m);
+    }
+
+    private ChatMessage save(String content, long senderId, Instant timestamp, ChatMessage.MessageStatus status) {
+        return mongoTemplate.insert(message(content, senderId, timestamp, status));
+    }
+
+    private static ChatMessage message(String content, long senderId, Instant timestamp, ChatMessage.MessageStatus status) {
+        ChatMessage m = new ChatMessage();
+        m.setConversationId(ChatService.conversationId(ME, OTHER));
+        m.setSenderId(senderId);
+        m.setRecipientId(senderId == ME ? OTHER : ME);
+        m.setContent(content);
+        m.setTimestamp(timestamp);
+        m.setStatus(status);
+        return m;
+    }
+
+    private static List<String> contents(ChatHistoryPage page) {
+        return page.getMessages().stream().map(ChatMessage::getContent).toList();
+    }
+}
@@ -0,0 +1,107 @@
+package com.conify.service;
+
+import com.conify.service.ChunkedUploadService.OffsetMismatchException;
+import com.conify.service.ChunkedUploadService.UploadNotFoundException;
+import com.conify.service.ChunkedUploadService.UploadStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkedUploadServiceTest {
+
+    private static final long USER = 1L;
+
+    @TempDir
+    Path uploadDir;
+
+    private ChunkedUploadService service;
+    private byte[] data;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        service = new ChunkedUploadService();
+        ReflectionTestUtils.setField(service, "uploadDir", uploadDir.toString());
+        ReflectionTestUtils.setField(service, "maxBytes", 1000L);
+        ReflectionTestUtils.setField(service, "chunkBytes", 100);
+        ReflectionTestUtils.setField(service, "maxPerUser", 2);
+        ReflectionTestUtils.setField(service, "ttlMs", 3600000L);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        service.init();
+
+        data = new byte[250];
+        for (int i = 0; i < data.length; i++) data[i] = (byte) i;
+    }
+
+    @Test
+    void retriedAndTruncatedChunksResumeAtTheServersOffset() throws Exception {
+        String id = service.initiate(USER, data.length, sha256(data)).uploadId();
+
+        assertEquals(100, append(id, 0, 0, 100).offset());
+        // Response lost, client resends the same chunk: only new bytes count
+        assertEquals(100, append(id, 0, 0, 100).offset());
+        // Connection drops half way through the second chunk
+        assertEquals(150, append(id, 100, 100, 150).offset());
+        // Client resumes from where it thought the chunk started
+        assertEquals(200, append(id, 100, 100, 200).offset());
+
+        OffsetMismatchException gap = assertThrows(OffsetMismatchException.class, () -> append(id, 240, 240, 250));
+        assertEquals(200, gap.getOffset());
+        assertThrows(OffsetMismatchException.class, () -> service.finish(id, USER, in -> null));
+
+        assertEquals(250, append(id, 200, 200, 250).offset());
+        byte[] received = service.finish(id, USER, InputStream::readAllBytes);
+        assertArrayEquals(data, received);
+
+        assertThrows(UploadNotFoundException.class, () -> service.status(id, USER));
+    }
+
+    @Test
+    void checksumMismatchIsRejectedAndDropsTheUpload() throws Exception {
+        String id = service.initiate(USER, data.length, sha256(new byte[]{1})).uploadId();
+        append(id, 0, 0, 100);
+        append(id, 100, 100, 200);
+        append(id, 200, 200, 250);
+
+        assertThrows(IllegalArgumentException.class, () -> service.finish(id, USER, in -> fail("handler must not run")));
+        assertThrows(UploadNotFoundException.class, () -> service.status(id, USER));
+    }
+
+    @Test
+    void uploadsArePrivateAndLimited() throws Exception {
+        String id = service.initiate(USER, data.length, sha256(data)).uploadId();
+
+        assertThrows(UploadNotFoundException.class, () -> service.status(id, 2L));
+        assertThrows(IllegalArgumentException.class, () -> append(id, 0, 0, 101));
+        // Without a Content-Length the oversized chunk is only noticed after writing: rolled back
+        append(id, 0, 0, 100);
+        assertThrows(IllegalArgumentException.class,
+                () -> service.appendChunk(id, USER, 100, -1, new ByteArrayInputStream(new byte[101])));
+        assertEquals(100, service.status(id, USER).offset());
+        assertThrows(IllegalArgumentException.class, () -> service.initiate(USER, 1001, sha256(data)));
+
+        service.initiate(USER, 10, sha256(data));
+        assertThrows(IllegalArgumentException.class, () -> service.initiate(USER, 10, sha256(data)));
+    }
+
+    private UploadStatus append(String id, long offset, int from, int to) throws IOException {
+        byte[] chunk = Arrays.copyOfRange(data, from, Math.min(to, data.length));
+        if (to > data.length) chunk = Arrays.copyOf(chunk, to - from);
+        return service.appendChunk(id, USER, offset, chunk.length, new ByteArrayInputStream(chunk));
+    }
+
+    private static String sha256(byte[] bytes) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+}
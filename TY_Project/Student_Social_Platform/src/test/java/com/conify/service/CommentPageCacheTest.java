@@ -0,0 +1,153 @@
+package com.conify.service;
+
+import com.conify.dto.CommentThread;
+import com.conify.dto.CommentThreadPage;
+import com.conify.model.mongo.Comment;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommentPageCacheTest {
+
+    private static final String POST = "post-1";
+
+    private CommentPageCache cache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        cache = new CommentPageCache();
+        ReflectionTestUtils.setField(cache, "maxPosts", 10);
+        ReflectionTestUtils.setField(cache, "minHits", 1);
+        ReflectionTestUtils.setField(cache, "pageSize", 2);
+        ReflectionTestUtils.setField(cache, "previewReplies", 1);
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        cache.init();
+    }
+
+    @Test
+    void servesRepeatedReadsFromMemory() {
+        CommentThreadPage page = page(false, thread(comment(null, 2)), thread(comment(null, 1)));
+
+        cache.firstPage(POST, () -> load(page));
+        CommentThreadPage again = cache.firstPage(POST, () -> load(page));
+
+        assertSame(page, again);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void newTopLevelCommentIsPatchedInAndPushesTheLastOneToPageTwo() {
+        Comment older = comment(null, 1);
+        cache.firstPage(POST, () -> load(page(false, thread(comment(null, 2)), thread(older))));
+
+        Comment fresh = comment(null, 3);
+        cache.commentAdded(fresh);
+        CommentThreadPage patched = cache.firstPage(POST, () -> load(page(false)));
+
+        assertEquals(1, loads.get());
+        assertEquals(2, patched.getComments().size());
+        assertEquals(fresh.getId(), patched.getComments().get(0).getComment().getId());
+        assertTrue(patched.isHasMore());
+        assertNotNull(patched.getNextCursor());
+    }
+
+    @Test
+    void lateArrivingTopLevelCommentIsSlottedInPageOrder() {
+        Comment newest = comment(null, 5);
+        Comment oldest = comment(null, 1);
+        cache.firstPage(POST, () -> load(page(false, thread(newest), thread(oldest))));
+
+        // Saved before 'newest' but reported after it
+        Comment middle = comment(null, 3);
+        cache.commentAdded(middle);
+        CommentThreadPage patched = cache.firstPage(POST, () -> load(page(false)));
+
+        assertEquals(List.of(newest.getId(), middle.getId()),
+                patched.getComments().stream().map(t -> t.getComment().getId()).toList());
+        assertTrue(patched.isHasMore());
+        assertEquals(KeysetCursor.of(middle.getTimestamp(), middle.getId()), patched.getNextCursor());
+
+        // Older than everything on a page that already has more: it belongs to a later page
+        cache.commentAdded(comment(null, 0));
+        assertSame(patched, cache.firstPage(POST, () -> load(page(false))));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void replyIsAppendedToPreviewUntilItIsFull() {
+        Comment parent = comment(null, 1);
+        cache.firstPage(POST, () -> load(page(false, thread(parent))));
+
+        cache.commentAdded(comment(parent.getId(), 2));
+        CommentThread t = cache.firstPage(POST, () -> load(page(false))).getComments().get(0);
+        assertEquals(1, t.getReplyCount());
+        assertEquals(1, t.getReplies().size());
+
+        // Preview holds one reply: the next one invalidates instead
+        cache.commentAdded(comment(parent.getId(), 3));
+        cache.firstPage(POST, () -> load(page(false)));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void pageLoadedWhileACommentArrivedIsNotCached() {
+        CommentThreadPage stale = page(false, thread(comment(null, 1)));
+        cache.firstPage(POST, () -> {
+            cache.commentAdded(comment(null, 2)); // lands mid-load
+            return load(stale);
+        });
+
+        CommentThreadPage fresh = page(false);
+        assertSame(fresh, cache.firstPage(POST, () -> load(fresh)));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void crawlOfOneOffViewsDoesNotEvictAdmittedPages() {
+        ReflectionTestUtils.setField(cache, "minHits", 2);
+        CommentThreadPage hot = page(false, thread(comment(null, 1)));
+        cache.firstPage(POST, () -> load(hot));
+        cache.firstPage(POST, () -> load(hot)); // second view: admitted
+
+        for (int i = 0; i < 50; i++) {
+            cache.firstPage("crawled-" + i, () -> load(page(false)));
+        }
+
+        assertSame(hot, cache.firstPage(POST, () -> load(page(false))));
+        assertEquals(52, loads.get());
+    }
+
+    /* ---------------- helpers ---------------- */
+
+    private CommentThreadPage load(CommentThreadPage page) {
+        loads.incrementAndGet();
+        return page;
+    }
+
+    private static CommentThreadPage page(boolean hasMore, CommentThread... threads) {
+        return new CommentThreadPage(new ArrayList<>(List.of(threads)), null, hasMore);
+    }
+
+    private static CommentThread thread(Comment c) {
+        return new CommentThread(c, 0, List.of());
+    }
+
+    private static Comment comment(String parentId, long second) {
+        Comment c = new Comment();
+        c.setId(new ObjectId().toHexString());
+        c.setPostId(POST);
+        c.setParentCommentId(parentId);
+        c.setTimestamp(Instant.ofEpochSecond(second));
+        return c;
+    }
+}
@@ -0,0 +1,203 @@
+package com.conify.service;
+
+import com.conify.model.mongo.EmailOutboxMessage;
+import com.conify.repository.mongo.EmailOutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class EmailOutboxDispatcherTest {
+
+    private FakeSmtpServer smtp;
+    private EmailOutboxRepository repository;
+    private EmailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        smtp = new FakeSmtpServer();
+
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(smtp.getPort());
+        mailSender.getJavaMailProperties().put("mail.smtp.from", "noreply@conify.test");
+
+        repository = mock(EmailOutboxRepository.class);
+
+        dispatcher = new EmailOutboxDispatcher();
+        ReflectionTestUtils.setField(dispatcher, "emailOutboxRepository", repository);
+        ReflectionTestUtils.setField(dispatcher, "mailSender", mailSender);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 20);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "backoffMs", 1000L);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        smtp.close();
+    }
+
+    @Test
+    void sendsWholeBatchOverOneConnection() {
+        List<EmailOutboxMessage> batch = List.of(
+                message("a@conify.test"), message("b@conify.test"), message("c@conify.test"));
+        dueMessages(batch);
+
+        int picked = dispatcher.dispatchBatch(Instant.now());
+
+        assertEquals(3, picked);
+        assertEquals(1, smtp.connections.get());
+        assertEquals(List.of("a@conify.test", "b@conify.test", "c@conify.test"), smtp.delivered);
+        for (EmailOutboxMessage m : batch) {
+            assertEquals(EmailOutboxMessage.Status.SENT, m.getStatus());
+            assertEquals(1, m.getAttempts());
+            assertNull(m.getHtmlBody());
+        }
+        verify(repository).saveAll(batch);
+    }
+
+    @Test
+    void rejectedRecipientIsRetriedWithBackoffOthersAreSent() {
+        EmailOutboxMessage ok = message("ok@conify.test");
+        EmailOutboxMessage bad = message("reject@conify.test");
+        dueMessages(List.of(ok, bad));
+        Instant now = Instant.now();
+
+        dispatcher.dispatchBatch(now);
+
+        assertEquals(EmailOutboxMessage.Status.SENT, ok.getStatus());
+        assertEquals(EmailOutboxMessage.Status.PENDING, bad.getStatus());
+        assertEquals(1, bad.getAttempts());
+        assertEquals(now.plusMillis(1000), bad.getNextAttemptAt());
+        assertNotNull(bad.getLastError());
+
+        // Second failure doubles the delay
+        dueMessages(List.of(bad));
+        dispatcher.dispatchBatch(now);
+        assertEquals(now.plusMillis(2000), bad.getNextAttemptAt());
+    }
+
+    @Test
+    void unreachableServerMarksFailedAfterMaxAttempts() throws IOException {
+        smtp.close();
+        EmailOutboxMessage m = message("a@conify.test");
+        dueMessages(List.of(m));
+
+        for (int i = 0; i < 3; i++) {
+            dispatcher.dispatchBatch(Instant.now());
+        }
+
+        assertEquals(EmailOutboxMessage.Status.FAILED, m.getStatus());
+        assertEquals(3, m.getAttempts());
+    }
+
+    // ---- helpers ----
+
+    private void dueMessages(List<EmailOutboxMessage> batch) {
+        when(repository.findByStatusAndNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+                eq(EmailOutboxMessage.Status.PENDING), any(Instant.class), any(Pageable.class)))
+                .thenReturn(batch);
+    }
+
+    private static EmailOutboxMessage message(String to) {
+        EmailOutboxMessage m = new EmailOutboxMessage(to, "Subject", "<p>Hello</p>");
+        m.setId("id-" + to);
+        return m;
+    }
+
+    /**
+     * Minimal in-process SMTP server: accepts everything except recipients
+     * starting with "reject", and records delivered recipients and connections.
+     */
+    static class FakeSmtpServer implements AutoCloseable {
+        final AtomicInteger connections = new AtomicInteger();
+        final List<String> delivered = new CopyOnWriteArrayList<>();
+        private final ServerSocket serverSocket;
+
+        FakeSmtpServer() throws IOException {
+            serverSocket = new ServerSocket(0);
+            Thread acceptor = new Thread(this::acceptLoop, "fake-smtp");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getPort() { return serverSocket.getLocalPort(); }
+
+        private void acceptLoop() {
+            while (!serverSocket.isClosed()) {
+                try (Socket socket = serverSocket.accept()) {
+                    connections.incrementAndGet();
+                    handle(socket);
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void handle(Socket socket) throws IOException {
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII);
+            reply(out, "220 localhost fake smtp");
+
+            String recipient = null;
+            String line;
+            while ((line = in.readLine()) != null) {
+                String cmd = line.toUpperCase();
+                if (cmd.startsWith("EHLO") || cmd.startsWith("HELO")) {
+                    reply(out, "250 localhost");
+                } else if (cmd.startsWith("MAIL FROM")) {
+                    recipient = null;
+                    reply(out, "250 OK");
+                } else if (cmd.startsWith("RCPT TO")) {
+                    String addr = line.substring(line.indexOf('<') + 1, line.indexOf('>'));
+                    if (addr.startsWith("reject")) {
+                        reply(out, "550 No such user");
+                    } else {
+                        recipient = addr;
+                        reply(out, "250 OK");
+                    }
+                } else if (cmd.equals("DATA")) {
+                    reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                    while ((line = in.readLine()) != null && !line.equals(".")) { }
+                    delivered.add(recipient);
+                    reply(out, "250 OK queued");
+                } else if (cmd.startsWith("QUIT")) {
+                    reply(out, "221 Bye");
+                    return;
+                } else {
+                    reply(out, "250 OK"); // RSET, NOOP
+                }
+            }
+        }
+
+        private static void reply(PrintWriter out, String line) {
+            out.print(line + "\r\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.conify.service;
+
+import com.conify.MongoTestExtension;
+import com.conify.dto.MediaRenditions;
+import com.conify.model.mongo.MediaBlob;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Upload -> content-addressed blob -> renditions, against the in-memory MediaStore
+ * and MongoDB for the ref counts (see {@link MongoTestExtension}).
+ */
+@ExtendWith(MongoTestExtension.class)
+class MediaProcessingServiceTest {
+
+    private MongoTemplate mongoTemplate;
+    private InMemoryMediaStore mediaStore;
+    private MediaBlobStore blobStore;
+    private MediaProcessingService service;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+
+        registry = new SimpleMeterRegistry();
+        mediaStore = new InMemoryMediaStore();
+
+        blobStore = new MediaBlobStore();
+        ReflectionTestUtils.setField(blobStore, "mediaStore", mediaStore);
+        ReflectionTestUtils.setField(blobStore, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(blobStore, "meterRegistry", registry);
+        blobStore.init();
+
+        service = new MediaProcessingService();
+        ReflectionTestUtils.setField(service, "workers", 1);
+        ReflectionTestUtils.setField(service, "queueCapacity", 10);
+        ReflectionTestUtils.setField(service, "feedWidth", 900);
+        ReflectionTestUtils.setField(service, "thumbnailWidth", 320);
+        ReflectionTestUtils.setField(service, "maxPixels", 10_000_000L);
+        ReflectionTestUtils.setField(service, "blobStore", blobStore);
+        ReflectionTestUtils.setField(service, "mediaStore", mediaStore);
+        ReflectionTestUtils.setField(service, "meterRegistry", registry);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (service != null) service.shutdown();
+    }
+
+    @Test
+    void sameBytesAreStoredOnceAndRenderedOnce() throws Exception {
+        byte[] png = png(2000, 1000);
+
+        MediaRenditions first = service.store(upload("a.png", png));
+        assertFalse(first.isReady());
+        assertTrue(first.getOriginalUrl().matches("uploads/media/[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}\\.png"));
+
+        MediaRenditions done = render(first);
+        assertEquals(first.getFeedUrl(), done.getFeedUrl());
+        assertEquals(900, width(done.getFeedUrl()));
+        assertEquals(320, width(done.getThumbnailUrl()));
+        // One 1000x500 subsampled decode (2x): its raster is the high-water mark, released afterwards
+        assertEquals(2_000_000, registry.get("media.decode.bytes.in_use.at_start").summary().max());
+        assertEquals(0, registry.get("media.decode.bytes.in_use").gauge().value());
+
+        // Different client name, same bytes: same blob, renditions reused
+        MediaRenditions second = service.store(upload("copy.jpeg", png));
+        assertTrue(second.isReady());
+        assertEquals(first.getOriginalUrl(), second.getOriginalUrl());
+        assertEquals(done.getThumbnailUrl(), second.getThumbnailUrl());
+        assertEquals(2, mongoTemplate.findAll(MediaBlob.class).get(0).getRefCount());
+
+        blobStore.release(second.getThumbnailUrl());
+        assertNotNull(mediaStore.stat(blobStore.keyOf(first.getOriginalUrl())));
+        blobStore.release(first.getOriginalUrl());
+        assertNull(mediaStore.stat(blobStore.keyOf(first.getOriginalUrl())));
+        assertNull(mediaStore.stat(blobStore.keyOf(done.getFeedUrl())));
+        assertTrue(mongoTemplate.findAll(MediaBlob.class).isEmpty());
+    }
+
+    @Test
+    void typeComesFromMagicBytesNotTheFileName() throws Exception {
+        MediaRenditions media = service.store(upload("photo.exe", png(10, 10)));
+        assertTrue(media.getOriginalUrl().endsWith(".png"));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> service.store(upload("photo.png", "<html>not an image</html>".getBytes())));
+        assertEquals("Unsupported file type", e.getMessage());
+    }
+
+    @Test
+    void documentsAreStoredUnderThePrivatePrefix() throws Exception {
+        String url = service.storeDocument(upload("id.png", png(10, 10)));
+        assertTrue(url.matches("uploads/media/private/[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}\\.png"));
+        assertTrue(blobStore.isPrivateBlobUrl(url));
+        assertFalse(blobStore.isPrivateBlobUrl(service.store(upload("a.png", png(20, 10))).getOriginalUrl()));
+
+        blobStore.release(url);
+        assertNull(mediaStore.stat(blobStore.keyOf(url)));
+    }
+
+    @Test
+    void imagesOverThePixelLimitAreRejectedFromTheHeader() {
+        assertThrows(IllegalArgumentException.class, () -> service.store(upload("big.png", png(4000, 3000))));
+        assertTrue(mongoTemplate.findAll(MediaBlob.class).isEmpty());
+    }
+
+    @Test
+    void fullQueueRejectsInsteadOfRenderingOnTheUploader() throws Exception {
+        service.shutdown();
+        ReflectionTestUtils.setField(service, "queueCapacity", 1);
+        service.init();
+        MediaRenditions running = service.store(upload("a.png", png(1000, 10)));
+        MediaRenditions queued = service.store(upload("b.png", png(1001, 10)));
+        MediaRenditions rejected = service.store(upload("c.png", png(1002, 10)));
+
+        // The first job holds the only worker, the second fills the queue
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<MediaRenditions> first = new CompletableFuture<>();
+        service.process(running, done -> {
+            try {
+                release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            first.complete(done);
+        });
+        CompletableFuture<MediaRenditions> second = new CompletableFuture<>();
+        service.process(queued, second::complete);
+
+        AtomicBoolean called = new AtomicBoolean();
+        service.process(rejected, done -> called.set(true));
+        assertEquals(1, registry.get("media.rejected").counter().count());
+
+        release.countDown();
+        assertTrue(first.get(30, TimeUnit.SECONDS).isReady());
+        assertTrue(second.get(30, TimeUnit.SECONDS).isReady());
+        assertFalse(called.get());
+        assertNull(service.readyRenditions(rejected.getOriginalUrl()));
+    }
+
+    /* ---------------- helpers ---------------- */
+
+    private MediaRenditions render(MediaRenditions media) throws Exception {
+        CompletableFuture<MediaRenditions> ready = new CompletableFuture<>();
+        service.process(media, ready::complete);
+        return ready.get(30, TimeUnit.SECONDS);
+    }
+
+    private int width(String url) throws IOException {
+        try (InputStream in = mediaStore.open(blobStore.keyOf(url))) {
+            return ImageIO.read(in).getWidth();
+        }
+    }
+
+    private static MockMultipartFile upload(String name, byte[] bytes) {
+        return new MockMultipartFile("file", name, "image/png", bytes);
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+}
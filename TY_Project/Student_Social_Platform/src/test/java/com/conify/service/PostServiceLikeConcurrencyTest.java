@@ -0,0 +1,102 @@
+package com.conify.service;
+
+import com.conify.MongoTestExtension;
+import com.conify.model.mongo.Post;
+import com.conify.model.mongo.PostLike;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Fires thousands of parallel like toggles at one post through the write-behind
+ * buffer, then checks what reached MongoDB (see {@link MongoTestExtension}).
+ */
+@ExtendWith(MongoTestExtension.class)
+class PostServiceLikeConcurrencyTest {
+
+    private static final int SINGLE_TOGGLERS = 1500; // like once -> counted
+    private static final int DOUBLE_TOGGLERS = 500;  // like + unlike concurrently -> not counted
+
+    private MongoTemplate mongoTemplate;
+    private LikeAggregator likeAggregator;
+    private PostService postService;
+
+    @BeforeEach
+    void setUp(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        mongoTemplate.indexOps("post_likes").ensureIndex(
+                new Index().on("postId", Sort.Direction.ASC).on("userId", Sort.Direction.ASC).unique());
+
+        likeAggregator = new LikeAggregator();
+        ReflectionTestUtils.setField(likeAggregator, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(likeAggregator, "notificationService", mock(NotificationService.class));
+        ReflectionTestUtils.setField(likeAggregator, "messagingTemplate", mock(SimpMessagingTemplate.class));
+        ReflectionTestUtils.setField(likeAggregator, "hotFeedCache", mock(HotFeedCache.class));
+        ReflectionTestUtils.setField(likeAggregator, "feedEventCoalescer", mock(FeedEventCoalescer.class));
+        ReflectionTestUtils.setField(likeAggregator, "meterRegistry", new SimpleMeterRegistry());
+        // Low threshold so size-triggered flushes race with the toggles
+        ReflectionTestUtils.setField(likeAggregator, "flushThreshold", 100);
+        ReflectionTestUtils.setField(likeAggregator, "idleEvictMs", 60_000L);
+        likeAggregator.init();
+
+        postService = new PostService();
+        ReflectionTestUtils.setField(postService, "likeAggregator", likeAggregator);
+    }
+
+    @Test
+    void parallelTogglesKeepLikeCountConsistent() throws Exception {
+        Post post = new Post();
+        post.setUserId(1L);
+        post.setContent("concurrency");
+        post = mongoTemplate.insert(post);
+        String postId = post.getId();
+
+        List<Long> toggles = new ArrayList<>();
+        for (long u = 1; u <= SINGLE_TOGGLERS; u++) toggles.add(u);
+        for (long u = 10_001; u <= 10_000 + DOUBLE_TOGGLERS; u++) {
+            toggles.add(u);
+            toggles.add(u);
+        }
+        Collections.shuffle(toggles);
+
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (Long userId : toggles) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                return postService.toggleLike(postId, userId);
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : futures) f.get(60, TimeUnit.SECONDS);
+        pool.shutdown();
+        likeAggregator.shutdown(); // final flush
+
+        Post stored = mongoTemplate.findById(postId, Post.class);
+        assertNotNull(stored);
+        long likeDocs = mongoTemplate.count(new Query(Criteria.where("postId").is(postId)), PostLike.class);
+        assertEquals(SINGLE_TOGGLERS, likeDocs);
+        assertEquals(SINGLE_TOGGLERS, stored.getLikeCount());
+    }
+}